@@ -0,0 +1,55 @@
+package com.expensemanager.benchmarks;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.expensemanager.expensemanager.analytics.AnalyticsReport;
+import com.expensemanager.expensemanager.analytics.ExpenseAnalytics;
+import com.expensemanager.expensemanager.analytics.ExpenseColumns;
+
+// The compute half of analyzeExpenses over an in-memory columnar snapshot; needs no mongod
+//   mvn -f expensemanager-benchmarks/pom.xml compile exec:exec -Djmh.args="AnalyticsBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private ExpenseColumns columns;
+
+    @Setup(Level.Trial)
+    public void createColumns() {
+        SplittableRandom random = new SplittableRandom(42);
+        ExpenseColumns.Builder builder = new ExpenseColumns.Builder();
+        long firstDay = SeededExpenses.date(0).toEpochDay();
+        for (int i = 0; i < size; i++) {
+            // Same spread as SeededExpenses: evenly over DAYS dates, in date order
+            builder.add(firstDay + (long) i * SeededExpenses.DAYS / size, 100 + random.nextInt(100_000));
+        }
+        columns = builder.build();
+    }
+
+    @Benchmark
+    public AnalyticsReport analyze() {
+        return ExpenseAnalytics.analyze(columns, Duration.ZERO);
+    }
+}
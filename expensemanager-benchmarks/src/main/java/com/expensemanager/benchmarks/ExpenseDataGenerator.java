@@ -0,0 +1,108 @@
+package com.expensemanager.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.ExpenseService;
+
+// Synthetic expenses shaped like a real ledger, always the same for a given seed: names of one to three words whose
+// popularity follows Zipf's law over the vocabulary (a few words such as "lunch" dominate), log-normal amounts around
+// a median (many small purchases, a long tail of large ones), and dates over a span with busier weekends.
+public final class ExpenseDataGenerator {
+
+    // Amounts in sen: medianAmount is the typical expense, amountSpread the sigma of its natural logarithm
+    public record Settings(LocalDate firstDate, int days, List<String> vocabulary, long medianAmount, double amountSpread) {
+
+        public static Settings defaults() {
+            return new Settings(LocalDate.of(2015, 1, 1), 3650, List.of(SeededExpenses.WORDS), 1500, 0.9);
+        }
+
+        public Settings withVocabulary(Path file) throws IOException {
+            List<String> words = Files.readAllLines(file).stream().map(String::trim).filter(word -> !word.isEmpty()).toList();
+            if (words.isEmpty()) {
+                throw new IllegalArgumentException("Vocabulary file has no words: " + file);
+            }
+            return new Settings(firstDate, days, words, medianAmount, amountSpread);
+        }
+    }
+
+    private static final double WEEKEND_WEIGHT = 1.5;  // Relative spending on Saturdays and Sundays
+    private static final long MAX_AMOUNT = 10_000_000;  // RM 100,000
+
+    private final Settings settings;
+    private final SplittableRandom random;
+    private final double[] cumulativeWordWeights;
+
+    public ExpenseDataGenerator(Settings settings, long seed) {
+        this.settings = settings;
+        this.random = new SplittableRandom(seed);
+        // Word at rank r is picked with weight 1 / (r + 1)
+        cumulativeWordWeights = new double[settings.vocabulary().size()];
+        double sum = 0;
+        for (int rank = 0; rank < cumulativeWordWeights.length; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulativeWordWeights[rank] = sum;
+        }
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    public Expense next() {
+        return new Expense(name(), amount(), date());
+    }
+
+    public String word() {
+        int index = Arrays.binarySearch(cumulativeWordWeights, random.nextDouble(cumulativeWordWeights[cumulativeWordWeights.length - 1]));
+        return settings.vocabulary().get(index >= 0 ? index : -index - 1);
+    }
+
+    public String name() {
+        int words = 1 + random.nextInt(3);
+        StringBuilder name = new StringBuilder(word());
+        for (int i = 1; i < words; i++) {
+            name.append(' ').append(word());
+        }
+        return name.toString();
+    }
+
+    public long amount() {
+        long amount = Math.round(settings.medianAmount() * Math.exp(settings.amountSpread() * random.nextGaussian()));
+        return Math.max(1, Math.min(amount, MAX_AMOUNT));
+    }
+
+    // Uniform over the span, then weekdays are thinned out so weekends end up WEEKEND_WEIGHT times as busy
+    public LocalDate date() {
+        while (true) {
+            LocalDate date = settings.firstDate().plusDays(random.nextInt(settings.days()));
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            if (weekend || random.nextDouble() < 1 / WEEKEND_WEIGHT) {
+                return date;
+            }
+        }
+    }
+
+    // Inserts size expenses for the current owner through the bulk write path (ExpenseService.addExpenses, one
+    // unordered bulk insert per batch) and returns how many were rejected
+    public long load(ExpenseService expenseService, long size, int batchSize) {
+        long rejected = 0;
+        List<Expense> batch = new ArrayList<>(batchSize);
+        for (long i = 0; i < size; i++) {
+            batch.add(next());
+            if (batch.size() == batchSize || i == size - 1) {
+                rejected += expenseService.addExpenses(batch).size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        return rejected;
+    }
+}
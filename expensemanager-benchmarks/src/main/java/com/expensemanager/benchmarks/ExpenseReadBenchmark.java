@@ -0,0 +1,126 @@
+package com.expensemanager.benchmarks;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.DailySummaryIndex.DayTotal;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Read paths behind the CLI menu, each measured both as the service serves it (summary index / cache)
+// and as the underlying MongoDB query, so a regression in either layer shows up.
+//   mvn -f expensemanager/pom.xml install -DskipTests
+//   mvn -f expensemanager-benchmarks/pom.xml compile exec:exec -Djmh.args="ExpenseReadBenchmark -p size=10000"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseReadBenchmark {
+
+    private static final int HOT_DAYS = 16;  // Few enough to stay cached, as when the CLI revisits a date
+    private static final String NAME_QUERY = "petrol toll";
+
+    // The service acts for the owner bound to the calling thread, so every worker binds the seeded one outside
+    // the measured calls
+    @State(Scope.Thread)
+    public static class Owner {
+        @Setup(Level.Iteration)
+        public void bind() {
+            TenantContext.set(TenantContext.DEFAULT_OWNER);
+        }
+
+        @TearDown(Level.Iteration)
+        public void unbind() {
+            TenantContext.clear();
+        }
+    }
+
+    // Walks the dates so consecutive invocations do not read the same day
+    @State(Scope.Thread)
+    public static class DateCursor {
+        private int next;
+
+        LocalDate nextDate() {
+            return SeededExpenses.date(next++);
+        }
+
+        LocalDate nextHotDate() {
+            return SeededExpenses.date(next++ % HOT_DAYS);
+        }
+    }
+
+    @Benchmark
+    public List<LocalDate> distinctDates(SeededExpenses data, Owner owner) {
+        return data.expenseService.getDistinctDates();
+    }
+
+    // The original getDistinctDates: $group over the collection, then Date -> LocalDate in the JVM
+    @Benchmark
+    public List<LocalDate> distinctDatesAggregation(SeededExpenses data) {
+        return data.expenseRepository.findDistinctDates(TenantContext.DEFAULT_OWNER).stream()
+                .map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate())
+                .sorted()
+                .toList();
+    }
+
+    @Benchmark
+    public List<Expense> expensesByDateCached(SeededExpenses data, Owner owner, DateCursor cursor) {
+        return data.expenseService.getExpensesByDate(cursor.nextHotDate());
+    }
+
+    @Benchmark
+    public List<Expense> expensesByDateQuery(SeededExpenses data, DateCursor cursor) {
+        return data.expenseRepository.findByOwnerAndDate(TenantContext.DEFAULT_OWNER, cursor.nextDate());
+    }
+
+    @Benchmark
+    public List<Expense> expensesByNameReference(SeededExpenses data, Owner owner) {
+        return data.expenseService.getExpensesByName(NAME_QUERY);
+    }
+
+    @Benchmark
+    public List<Expense> expensesByNameRanked(SeededExpenses data, Owner owner) {
+        return data.expenseService.searchExpensesByName(NAME_QUERY, 0, 20);
+    }
+
+    // What "View Expenses" computes: grand total plus the per-date totals list
+    @Benchmark
+    public void viewTotals(SeededExpenses data, Owner owner, Blackhole blackhole) {
+        blackhole.consume(data.expenseService.getGrandTotal());
+        blackhole.consume(data.expenseService.getDailyTotals());
+    }
+
+    // What "Analyze Expenses" computes: the most and least expensive day
+    @Benchmark
+    public void analyzeExtremes(SeededExpenses data, Owner owner, Blackhole blackhole) {
+        Optional<DayTotal> max = data.expenseService.getMostExpensiveDay();
+        Optional<DayTotal> min = data.expenseService.getLeastExpensiveDay();
+        blackhole.consume(max);
+        blackhole.consume(min);
+    }
+
+    // The server-side aggregation the summary index is built from (cold start and rebuilds)
+    @Benchmark
+    public List<DailySummary> dailySummariesAggregation(SeededExpenses data) {
+        return data.expenseRepository.findDailySummaries(TenantContext.DEFAULT_OWNER);
+    }
+}
@@ -0,0 +1,346 @@
+package com.expensemanager.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.expensemanager.expensemanager.ExpensemanagerApplication;
+import com.expensemanager.expensemanager.analytics.ExpenseAnalyticsService;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.ExpenseService;
+import com.expensemanager.expensemanager.service.ExpenseWriteResult;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+// End-to-end load test: seeds a dataset with ExpenseDataGenerator, then replays a weighted mix of ExpenseService
+// operations at a fixed target rate from many workers and reports throughput and latency percentiles per operation.
+//
+// The schedule is open-loop: operation i is due at start + i / rate whatever happened before it, and its latency is
+// measured from that due time. A stall therefore shows up in the latency of every operation queued behind it, as
+// users would see it, instead of silently lowering the offered load (coordinated omission).
+//
+//   mvn -f expensemanager-benchmarks/pom.xml compile exec:exec@load -Dload.args="--size=1000000 --rate=2000"
+//
+// Storage: a throwaway mongod (default), --mongodb-uri=... for an existing server, or --storage=embedded.
+// Dataset: --size, --owners, --first-date, --days, --vocabulary=<file, one word per line>, --median-amount (sen),
+// --amount-spread, --seed, --batch-size. Load: --rate (operations/s), --workers, --warmup, --duration, and
+// --mix=view=40,add=20,edit=15,delete=5,search=15,analyze=5 (relative weights).
+public class LoadDriver {
+
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(10);
+
+    enum Operation {
+        VIEW, ADD, EDIT, DELETE, SEARCH, ANALYZE;
+
+        String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    // Latencies from the due time in microseconds, recorded wait-free by workers and drained by the reporter
+    private static final class OperationStats {
+        final Recorder recorder = new Recorder(3);
+        final Histogram total = new Histogram(3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder conflicts = new LongAdder();  // Edits and deletes that lost to another writer
+    }
+
+    private final ExpenseService expenseService;
+    private final ExpenseAnalyticsService analyticsService;
+    private final ExpenseDataGenerator.Settings dataset;
+    private final List<String> owners;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final double[] cumulativeWeights;
+
+    LoadDriver(ExpenseService expenseService, ExpenseAnalyticsService analyticsService,
+               ExpenseDataGenerator.Settings dataset, List<String> owners, Map<Operation, Integer> mix) {
+        this.expenseService = expenseService;
+        this.analyticsService = analyticsService;
+        this.dataset = dataset;
+        this.owners = owners;
+        List<Operation> weighted = new ArrayList<>();
+        List<Double> cumulative = new ArrayList<>();
+        double sum = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                sum += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(sum);
+                stats.put(entry.getKey(), new OperationStats());
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix has no positive weights");
+        }
+        operations = weighted.toArray(Operation[]::new);
+        cumulativeWeights = cumulative.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        ExpenseDataGenerator.Settings dataset = new ExpenseDataGenerator.Settings(
+                LocalDate.parse(options.getOrDefault("first-date", "2015-01-01")),
+                Integer.parseInt(options.getOrDefault("days", "3650")),
+                List.of(SeededExpenses.WORDS),
+                Long.parseLong(options.getOrDefault("median-amount", "1500")),
+                Double.parseDouble(options.getOrDefault("amount-spread", "0.9")));
+        if (options.containsKey("vocabulary")) {
+            dataset = dataset.withVocabulary(Path.of(options.get("vocabulary")));
+        }
+        long size = Long.parseLong(options.getOrDefault("size", "100000"));
+        int ownerCount = Integer.parseInt(options.getOrDefault("owners", "1"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "10000"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+        int workers = Integer.parseInt(options.getOrDefault("workers", "64"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "view=40,add=20,edit=15,delete=5,search=15,analyze=5"));
+
+        List<String> owners = new ArrayList<>();
+        for (int i = 0; i < ownerCount; i++) {
+            owners.add(ownerCount == 1 ? TenantContext.DEFAULT_OWNER : "owner-" + i);
+        }
+
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        List<String> properties = new ArrayList<>(List.of("--spring.main.banner-mode=off", "--logging.level.root=warn"));
+        List<String> profiles = new ArrayList<>(List.of("server"));
+        if ("embedded".equals(options.get("storage"))) {
+            Path dir = Files.createTempDirectory("expensemanager-load");
+            profiles.add("embedded");
+            properties.add("--expensemanager.storage.path=" + dir.resolve("expenses.log"));
+        } else if (options.containsKey("mongodb-uri")) {
+            properties.add("--spring.data.mongodb.uri=" + options.get("mongodb-uri"));
+        } else {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            properties.add("--spring.data.mongodb.uri=mongodb://" + address.getHost() + ":" + address.getPort() + "/expense_manager_load");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExpensemanagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profiles.toArray(String[]::new))
+                .run(properties.toArray(String[]::new))) {
+            ExpenseService expenseService = context.getBean(ExpenseService.class);
+
+            long start = System.nanoTime();
+            long rejected = 0;
+            for (int i = 0; i < owners.size(); i++) {
+                ExpenseDataGenerator generator = new ExpenseDataGenerator(dataset, seed + i);
+                long share = size / owners.size() + (i < size % owners.size() ? 1 : 0);
+                rejected += TenantContext.callAs(owners.get(i), () -> generator.load(expenseService, share, batchSize));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Loaded %d expenses for %d owner(s) in %.1f s (%.0f/s), %d rejected%n",
+                    size - rejected, owners.size(), seconds, size / seconds, rejected);
+
+            if (!duration.isZero()) {
+                LoadDriver driver = new LoadDriver(expenseService, context.getBean(ExpenseAnalyticsService.class),
+                        dataset, owners, mix);
+                driver.run(rate, workers, warmup, duration, seed);
+            }
+        } finally {
+            if (mongod != null) {
+                mongod.close();
+            }
+        }
+    }
+
+    void run(double rate, int workers, Duration warmup, Duration duration, long seed) throws Exception {
+        long intervalNanos = Math.max(1, Math.round(1e9 / rate));
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        AtomicLong nextSlot = new AtomicLong();
+        Duration measured;
+
+        System.out.printf("Offering %.0f operations/s from %d workers: %s warm-up, then %s measured%n",
+                rate, workers, warmup, duration);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < workers; worker++) {
+                SplittableRandom random = new SplittableRandom(seed * 31 + worker);
+                ExpenseDataGenerator generator = new ExpenseDataGenerator(dataset, random.nextLong());
+                futures.add(executor.submit(() -> {
+                    while (true) {
+                        long due = start + nextSlot.getAndIncrement() * intervalNanos;
+                        if (due >= end) {
+                            return;
+                        }
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        execute(pick(random), random, generator, due);
+                    }
+                }));
+            }
+
+            // Each report drains the recorders; warm-up intervals are printed but left out of the final summary
+            long lastReport = start;
+            boolean measuring = false;
+            while (!allDone(futures)) {
+                Thread.sleep(50);
+                long now = System.nanoTime();
+                if ((!measuring && now >= measureFrom) || now - lastReport >= REPORT_INTERVAL.toNanos()) {
+                    report(measuring, now - lastReport);
+                    lastReport = now;
+                    measuring = now >= measureFrom;
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long finished = System.nanoTime();
+            report(measuring, finished - lastReport);
+            // A backlog is still being worked off after the last due time, so throughput counts until it is done
+            measured = Duration.ofNanos(finished - Math.min(finished, measureFrom));
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        printSummary(measured, rate);
+    }
+
+    private Operation pick(SplittableRandom random) {
+        double point = random.nextDouble(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, SplittableRandom random, ExpenseDataGenerator generator, long due) {
+        OperationStats operationStats = stats.get(operation);
+        String owner = owners.get(random.nextInt(owners.size()));
+        try {
+            boolean applied = TenantContext.callAs(owner, () -> perform(operation, generator));
+            if (!applied) {
+                operationStats.conflicts.increment();
+            }
+        } catch (RuntimeException e) {
+            operationStats.errors.increment();
+        }
+        operationStats.recorder.recordValue(Math.max(0, (System.nanoTime() - due) / 1000));
+    }
+
+    // One user action each; edits and deletes pick a random expense of a random day, as the CLI does
+    private boolean perform(Operation operation, ExpenseDataGenerator generator) {
+        switch (operation) {
+            case VIEW -> {
+                LocalDate date = generator.date();
+                expenseService.getExpensesByDate(date);
+                expenseService.getDailyTotal(date);
+            }
+            case ADD -> expenseService.addExpense(generator.name(), generator.amount(), generator.date());
+            case EDIT -> {
+                Expense expense = anyExpense(generator);
+                return expense == null || expenseService.editExpense(expense.getId(), expense.getVersion(),
+                        generator.name(), generator.amount()).status() == ExpenseWriteResult.Status.APPLIED;
+            }
+            case DELETE -> {
+                Expense expense = anyExpense(generator);
+                return expense == null || expenseService.deleteExpense(expense.getId(), expense.getVersion())
+                        .status() == ExpenseWriteResult.Status.APPLIED;
+            }
+            case SEARCH -> expenseService.searchExpensesByName(generator.word(), 0, 20);
+            case ANALYZE -> analyticsService.analyze();
+        }
+        return true;
+    }
+
+    private Expense anyExpense(ExpenseDataGenerator generator) {
+        List<Expense> expenses = expenseService.getExpensesByDate(generator.date());
+        return expenses.isEmpty() ? null : expenses.get((int) (Math.abs(generator.amount()) % expenses.size()));
+    }
+
+    private void report(boolean measuring, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder line = new StringBuilder(measuring ? "measured" : "warm-up ");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            Histogram interval = entry.getValue().recorder.getIntervalHistogram();
+            if (measuring) {
+                entry.getValue().total.add(interval);
+            }
+            line.append(String.format("  %s %.0f/s p99 %.1f ms", entry.getKey().label(),
+                    interval.getTotalCount() / seconds, interval.getValueAtPercentile(99) / 1000.0));
+        }
+        System.out.println(line);
+    }
+
+    private void printSummary(Duration measured, double rate) {
+        double seconds = Math.max(1, measured.toNanos()) / 1e9;
+        System.out.printf("%n%-8s %10s %10s %10s %10s %10s %10s %8s %9s%n",
+                "op", "count", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "conflicts");
+        long count = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            Histogram total = entry.getValue().total;
+            count += total.getTotalCount();
+            System.out.printf("%-8s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d %9d%n",
+                    entry.getKey().label(), total.getTotalCount(), total.getTotalCount() / seconds,
+                    total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+                    total.getValueAtPercentile(99.9) / 1000.0, total.getMaxValue() / 1000.0,
+                    entry.getValue().errors.sum(), entry.getValue().conflicts.sum());
+        }
+        System.out.printf("%ntotal %.1f operations/s of %.0f offered over %.1f s; latencies are from each operation's due time%n",
+                count / seconds, rate, seconds);
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        return futures.stream().allMatch(Future::isDone);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected op=weight in --mix, got: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static Map<String, String> parseOptions(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 3) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,120 @@
+package com.expensemanager.benchmarks;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.util.ReflectionUtils;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpenseRepository;
+import com.expensemanager.expensemanager.repository.ExpenseRepositoryImpl;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+// Compares the unanchored-regex reference search with the indexed ranked search on a seeded collection.
+// Needs a running MongoDB; seeds a dedicated database on first run:
+//   mvn -f expensemanager-benchmarks/pom.xml compile exec:exec@name-search \
+//       -Dname-search.args="mongodb://localhost:27017 1000000"
+public class NameSearchBenchmark {
+
+    private static final String DATABASE = "expense_manager_bench";
+    private static final String OWNER = TenantContext.DEFAULT_OWNER;
+    private static final String[] WORDS = { "lunch", "dinner", "coffee", "grocery", "petrol", "parking", "toll",
+            "movie", "book", "pharmacy", "rent", "electric", "water", "internet", "phone", "gym", "taxi", "bus",
+            "train", "flight", "hotel", "gift", "laundry", "haircut", "snack", "breakfast", "insurance", "clinic" };
+    private static final String[] QUERIES = { "coffee", "Park", "ell", "lunch ta", "xyz", "in" };
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int documents = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate template = new MongoTemplate(client, DATABASE);
+            ExpenseRepositoryImpl custom = new ExpenseRepositoryImpl();
+            // Wired by field injection in the application; set directly here to skip the Spring context
+            Field mongoTemplate = ReflectionUtils.findField(ExpenseRepositoryImpl.class, "mongoTemplate");
+            ReflectionUtils.makeAccessible(mongoTemplate);
+            ReflectionUtils.setField(mongoTemplate, custom, template);
+            ExpenseRepository repository = new MongoRepositoryFactory(template)
+                    .getRepository(ExpenseRepository.class, RepositoryFragments.just(custom));
+
+            IndexResolver.create(template.getConverter().getMappingContext()).resolveIndexFor(Expense.class)
+                    .forEach(template.indexOps(Expense.class)::ensureIndex);
+            seed(repository, documents);
+            System.out.printf("%d documents in %s.expenses%n%n", repository.count(), DATABASE);
+
+            System.out.printf("%-10s %8s %14s %14s %8s%n", "query", "matches", "scan ms", "index ms", "speedup");
+            for (String query : QUERIES) {
+                List<Expense> reference = repository.findByOwnerAndNameContainingIgnoreCase(OWNER, query);
+                List<Expense> indexed = allPages(repository, query);
+                if (!ids(reference).equals(ids(indexed))) {
+                    System.out.printf("MISMATCH for '%s': reference %d vs indexed %d%n", query, reference.size(), indexed.size());
+                }
+
+                double scan = medianMillis(() -> repository.findByOwnerAndNameContainingIgnoreCase(OWNER, query).size());
+                // The CLI shows one ranked page at a time, so the indexed path is timed for its first page
+                double index = medianMillis(() -> repository.searchByName(OWNER, query, 0, 20).size());
+                System.out.printf("%-10s %8d %14.2f %14.2f %7.1fx%n", query, reference.size(), scan, index, scan / index);
+            }
+        }
+    }
+
+    private static void seed(ExpenseRepository repository, int documents) {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<Expense> batch = new ArrayList<>();
+        for (long existing = repository.count(); existing < documents; existing++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            Expense expense = new Expense(name, 100 + random.nextInt(20_000), start.plusDays(random.nextInt(1500)));
+            expense.setOwner(OWNER);
+            batch.add(expense);
+            if (batch.size() == 10_000) {
+                repository.insertUnordered(batch);
+                batch.clear();
+            }
+        }
+        repository.insertUnordered(batch);
+    }
+
+    private static List<Expense> allPages(ExpenseRepository repository, String query) {
+        List<Expense> all = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            List<Expense> results = repository.searchByName(OWNER, query, page, 10_000);
+            all.addAll(results);
+            if (results.size() < 10_000) {
+                return all;
+            }
+        }
+    }
+
+    private static Set<String> ids(List<Expense> expenses) {
+        Set<String> ids = new HashSet<>();
+        expenses.forEach(expense -> ids.add(expense.getId()));
+        return ids;
+    }
+
+    private static double medianMillis(Supplier<Integer> search) {
+        search.get(); // Warm up
+        double[] samples = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
@@ -0,0 +1,95 @@
+package com.expensemanager.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.expensemanager.expensemanager.ExpensemanagerApplication;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpenseRepository;
+import com.expensemanager.expensemanager.service.ExpenseService;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+// One throwaway mongod plus the application context (server profile, no web server) per trial,
+// seeded with `size` deterministic expenses spread over DAYS consecutive dates
+@State(Scope.Benchmark)
+public class SeededExpenses {
+
+    static final LocalDate FIRST_DATE = LocalDate.of(2015, 1, 1);
+    static final int DAYS = 3650;
+    static final String[] WORDS = { "lunch", "dinner", "coffee", "grocery", "petrol", "parking", "toll",
+            "movie", "book", "pharmacy", "rent", "electric", "water", "internet", "phone", "gym", "taxi", "bus",
+            "train", "flight", "hotel", "gift", "laundry", "haircut", "snack", "breakfast", "insurance", "clinic" };
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({ "10000", "1000000", "10000000" })
+    public int size;
+
+    private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private ConfigurableApplicationContext context;
+
+    ExpenseService expenseService;
+    ExpenseRepository expenseRepository;
+
+    @Setup(Level.Trial)
+    public void start() {
+        mongod = Mongod.instance().start(Version.Main.V7_0);
+        ServerAddress address = mongod.current().getServerAddress();
+        context = new SpringApplicationBuilder(ExpensemanagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("server")
+                .run("--spring.data.mongodb.uri=mongodb://" + address.getHost() + ":" + address.getPort() + "/expense_manager_bench",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=warn");
+        expenseService = context.getBean(ExpenseService.class);
+        expenseRepository = context.getBean(ExpenseRepository.class);
+        TenantContext.runAs(TenantContext.DEFAULT_OWNER, this::seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        mongod.close();
+    }
+
+    static LocalDate date(int day) {
+        return FIRST_DATE.plusDays(day % DAYS);
+    }
+
+    // Two-word names ("coffee taxi") and amounts between 1.00 and 500.00, always the same for a given size
+    private void seed() {
+        Random random = new Random(size);
+        List<Expense> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            batch.add(new Expense(name, 100 + random.nextInt(49_901), date(random.nextInt(DAYS))));
+            if (batch.size() == SEED_BATCH_SIZE) {
+                expenseService.addExpenses(batch);
+                batch = new ArrayList<>(SEED_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            expenseService.addExpenses(batch);
+        }
+        // Start every trial from a freshly built summary index and an empty cache
+        expenseService.rebuildSummaryIndex();
+    }
+}
@@ -0,0 +1,105 @@
+package com.expensemanager.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Time to first prompt: launches the CLI as a fresh process, waits until its menu prompt appears on stdout,
+// answers Exit, and reports the wall-clock time from process start to the prompt over several runs.
+// Uses only the JDK, so it runs straight from source:
+//   java expensemanager-benchmarks/src/main/java/com/expensemanager/benchmarks/StartupTime.java [--runs=N] <command...>
+public class StartupTime {
+
+    private static final String PROMPT = "Enter choice: ";
+    private static final String EXIT_CHOICE = "11\n";
+    private static final long TIMEOUT_SECONDS = 120;  // For the prompt, then again for the exit
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        int first = 0;
+        if (args.length > 0 && args[0].startsWith("--runs=")) {
+            runs = Integer.parseInt(args[0].substring("--runs=".length()));
+            first = 1;
+        }
+        List<String> command = Arrays.asList(args).subList(first, args.length);
+        if (command.isEmpty()) {
+            System.err.println("Usage: StartupTime [--runs=N] <command...>");
+            System.exit(2);
+        }
+
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = timeToPrompt(command);
+            System.out.printf("run %d: %d ms%n", run + 1, millis[run]);
+        }
+        Arrays.sort(millis);
+        System.out.printf("time to first prompt over %d runs: min %d ms, median %d ms, max %d ms%n",
+                runs, millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    private static long timeToPrompt(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(new ArrayList<>(command)).redirectErrorStream(true).start();
+        try {
+            // Reads block until the process writes or exits, so they run on pool threads and only the waits for
+            // them are bounded; destroying the process closes its output and ends any read still blocked
+            InputStream output = process.getInputStream();
+            StringBuffer transcript = new StringBuffer();
+            CompletableFuture<Long> prompted = CompletableFuture.supplyAsync(() -> readUntilPrompt(output, transcript));
+            long promptedAt;
+            try {
+                promptedAt = prompted.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("No prompt within " + TIMEOUT_SECONDS + " s:\n" + transcript);
+            } catch (ExecutionException e) {
+                throw new IOException("Could not read the process output", e.getCause());
+            }
+            if (promptedAt < 0) {
+                throw new IllegalStateException("Process exited before prompting:\n" + transcript);
+            }
+
+            OutputStream input = process.getOutputStream();
+            input.write(EXIT_CHOICE.getBytes(StandardCharsets.UTF_8));
+            input.flush();
+            CompletableFuture.runAsync(() -> {
+                try {
+                    output.transferTo(OutputStream.nullOutputStream());
+                } catch (IOException e) {
+                    // Closed when the process is destroyed below
+                }
+            });
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Process did not exit after choosing Exit");
+            }
+            return TimeUnit.NANOSECONDS.toMillis(promptedAt - start);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    // The time the prompt was seen, or -1 if the output ended first. The prompt is printed without a trailing
+    // newline, so match on raw output rather than lines.
+    private static long readUntilPrompt(InputStream output, StringBuffer transcript) {
+        byte[] prompt = PROMPT.getBytes(StandardCharsets.UTF_8);
+        int matched = 0;
+        try {
+            int next;
+            while (matched < prompt.length && (next = output.read()) != -1) {
+                transcript.append((char) next);
+                matched = next == prompt[matched] ? matched + 1 : (next == prompt[0] ? 1 : 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return matched == prompt.length ? System.nanoTime() : -1;
+    }
+}
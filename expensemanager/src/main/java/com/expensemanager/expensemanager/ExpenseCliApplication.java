@@ -0,0 +1,17 @@
+package com.expensemanager.expensemanager;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+// Fast-start launcher for an interactive CLI session: the "cli" profile (no web server, lazy beans, MongoDB
+// connected on first use) on top of any profiles given with --spring.profiles.active
+public class ExpenseCliApplication {
+
+	public static void main(String[] args) {
+		// Devtools reads this before any property source is loaded; its restart classloader only slows a CLI down
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		new SpringApplicationBuilder(ExpensemanagerApplication.class)
+				.profiles("cli")
+				.run(args);
+	}
+
+}
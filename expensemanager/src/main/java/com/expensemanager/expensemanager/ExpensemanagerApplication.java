@@ -2,8 +2,11 @@ package com.expensemanager.expensemanager;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+// Scheduling only runs jobs whose trigger is configured, such as expensemanager.rollup.cron
 @SpringBootApplication
+@EnableScheduling
 public class ExpensemanagerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,34 @@
+package com.expensemanager.expensemanager.analytics;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+// Spending statistics over one columnar snapshot; amounts are in sen. Empty lists and zero percentiles when
+// there are no expenses.
+public record AnalyticsReport(
+        long expenses,
+        long total,
+        LocalDate firstDate,
+        LocalDate lastDate,
+        List<PeriodTotal> weekly,
+        List<PeriodTotal> monthly,
+        List<DailyTrend> recentTrend,
+        DailyPercentiles dailyPercentiles,
+        List<WeekdayTotal> byDayOfWeek,
+        Duration snapshotTime,
+        Duration computeTime) {
+
+    // A week (starting Monday) or calendar month, identified by its first day
+    public record PeriodTotal(LocalDate start, long total, long count) {}
+
+    // A calendar day with its trailing 7- and 30-day averages; days without expenses count as zero
+    public record DailyTrend(LocalDate date, long total, double average7, double average30) {}
+
+    // Nearest-rank percentiles of the daily total over the days that have expenses
+    public record DailyPercentiles(long p50, long p90, long p99, long max) {}
+
+    // Spend on one weekday across the whole range, and its share of the grand total
+    public record WeekdayTotal(DayOfWeek day, long total, long count, double share) {}
+}
@@ -0,0 +1,219 @@
+package com.expensemanager.expensemanager.analytics;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.DailyPercentiles;
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.DailyTrend;
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.PeriodTotal;
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.WeekdayTotal;
+
+// Statistics over ExpenseColumns in two phases: a fork-join pass folds the rows into dense per-day totals and
+// counts, then every statistic is derived from those day arrays, whose length is the number of calendar days
+// spanned rather than the number of expenses.
+public final class ExpenseAnalytics {
+
+    static final int RECENT_TREND_DAYS = 90;
+
+    private static final int LEAF_ROWS = 1 << 16;  // Rows folded sequentially by one task
+
+    private ExpenseAnalytics() {
+    }
+
+    public static AnalyticsReport analyze(ExpenseColumns columns, Duration snapshotTime) {
+        return analyze(columns, snapshotTime, ForkJoinPool.commonPool());
+    }
+
+    public static AnalyticsReport analyze(ExpenseColumns columns, Duration snapshotTime, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        int rows = columns.size();
+        if (rows == 0) {
+            return new AnalyticsReport(0, 0, null, null, List.of(), List.of(), List.of(),
+                    new DailyPercentiles(0, 0, 0, 0), List.of(), snapshotTime, Duration.ofNanos(System.nanoTime() - start));
+        }
+        long firstDay = columns.epochDay(0);
+        long lastDay = columns.epochDay(rows - 1);
+        int span = Math.toIntExact(lastDay - firstDay + 1);
+        long[] dayTotals = new long[span];
+        long[] dayCounts = new long[span];
+        pool.invoke(new DayBuckets(columns.epochDays(), columns.amounts(), columns.counts(), 0, rows, firstDay, dayTotals,
+                dayCounts));
+
+        long total = 0;
+        for (long dayTotal : dayTotals) {
+            total += dayTotal;
+        }
+        return new AnalyticsReport(columns.expenses(), total, LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay),
+                weekly(firstDay, dayTotals, dayCounts),
+                monthly(firstDay, dayTotals, dayCounts),
+                recentTrend(firstDay, dayTotals),
+                percentiles(dayTotals, dayCounts),
+                byDayOfWeek(firstDay, dayTotals, dayCounts, total),
+                snapshotTime,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // Folds rows [from, to) into the day arrays. Splits only at day boundaries, so each day is written by exactly
+    // one task and the shared arrays need no synchronization.
+    private static final class DayBuckets extends RecursiveAction {
+        private final long[] epochDays;
+        private final long[] amounts;
+        private final long[] counts;  // null when every row is one expense
+        private final int from;
+        private final int to;
+        private final long firstDay;
+        private final long[] dayTotals;
+        private final long[] dayCounts;
+
+        DayBuckets(long[] epochDays, long[] amounts, long[] counts, int from, int to, long firstDay, long[] dayTotals,
+                long[] dayCounts) {
+            this.epochDays = epochDays;
+            this.amounts = amounts;
+            this.counts = counts;
+            this.from = from;
+            this.to = to;
+            this.firstDay = firstDay;
+            this.dayTotals = dayTotals;
+            this.dayCounts = dayCounts;
+        }
+
+        @Override
+        protected void compute() {
+            int split = to - from > LEAF_ROWS ? dayBoundary(from + (to - from) / 2) : -1;
+            if (split <= from || split >= to) {
+                for (int row = from; row < to; row++) {
+                    int day = (int) (epochDays[row] - firstDay);
+                    dayTotals[day] += amounts[row];
+                    dayCounts[day] += counts == null ? 1 : counts[row];
+                }
+                return;
+            }
+            invokeAll(new DayBuckets(epochDays, amounts, counts, from, split, firstDay, dayTotals, dayCounts),
+                    new DayBuckets(epochDays, amounts, counts, split, to, firstDay, dayTotals, dayCounts));
+        }
+
+        // First row in [from, to) whose day differs from the day at middle's predecessor; binary search on days
+        private int dayBoundary(int middle) {
+            long day = epochDays[middle - 1];
+            int low = middle;
+            int high = to;
+            while (low < high) {
+                int probe = (low + high) >>> 1;
+                if (epochDays[probe] <= day) {
+                    low = probe + 1;
+                } else {
+                    high = probe;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static List<PeriodTotal> weekly(long firstDay, long[] dayTotals, long[] dayCounts) {
+        List<PeriodTotal> weeks = new ArrayList<>();
+        long weekStart = Long.MIN_VALUE;
+        long total = 0;
+        long count = 0;
+        for (int day = 0; day < dayTotals.length; day++) {
+            long epochDay = firstDay + day;
+            long start = epochDay - isoDayIndex(epochDay);
+            if (start != weekStart) {
+                if (count > 0) {
+                    weeks.add(new PeriodTotal(LocalDate.ofEpochDay(weekStart), total, count));
+                }
+                weekStart = start;
+                total = 0;
+                count = 0;
+            }
+            total += dayTotals[day];
+            count += dayCounts[day];
+        }
+        if (count > 0) {
+            weeks.add(new PeriodTotal(LocalDate.ofEpochDay(weekStart), total, count));
+        }
+        return weeks;
+    }
+
+    private static List<PeriodTotal> monthly(long firstDay, long[] dayTotals, long[] dayCounts) {
+        List<PeriodTotal> months = new ArrayList<>();
+        LocalDate date = LocalDate.ofEpochDay(firstDay);
+        int day = 0;
+        while (day < dayTotals.length) {
+            LocalDate monthStart = date.withDayOfMonth(1);
+            int monthEnd = Math.min(dayTotals.length, day + date.lengthOfMonth() - date.getDayOfMonth() + 1);
+            long total = 0;
+            long count = 0;
+            for (; day < monthEnd; day++) {
+                total += dayTotals[day];
+                count += dayCounts[day];
+            }
+            if (count > 0) {
+                months.add(new PeriodTotal(monthStart, total, count));
+            }
+            date = monthStart.plusMonths(1);
+        }
+        return months;
+    }
+
+    // Trailing averages via running window sums over the whole span; only the last RECENT_TREND_DAYS are reported
+    private static List<DailyTrend> recentTrend(long firstDay, long[] dayTotals) {
+        int first = Math.max(0, dayTotals.length - RECENT_TREND_DAYS);
+        List<DailyTrend> trend = new ArrayList<>(dayTotals.length - first);
+        long window7 = 0;
+        long window30 = 0;
+        for (int day = 0; day < dayTotals.length; day++) {
+            window7 += dayTotals[day] - (day >= 7 ? dayTotals[day - 7] : 0);
+            window30 += dayTotals[day] - (day >= 30 ? dayTotals[day - 30] : 0);
+            if (day >= first) {
+                trend.add(new DailyTrend(LocalDate.ofEpochDay(firstDay + day), dayTotals[day],
+                        window7 / (double) Math.min(day + 1, 7), window30 / (double) Math.min(day + 1, 30)));
+            }
+        }
+        return trend;
+    }
+
+    private static DailyPercentiles percentiles(long[] dayTotals, long[] dayCounts) {
+        long[] spent = new long[dayTotals.length];
+        int days = 0;
+        for (int day = 0; day < dayTotals.length; day++) {
+            if (dayCounts[day] > 0) {
+                spent[days++] = dayTotals[day];
+            }
+        }
+        Arrays.sort(spent, 0, days);
+        return new DailyPercentiles(nearestRank(spent, days, 50), nearestRank(spent, days, 90),
+                nearestRank(spent, days, 99), spent[days - 1]);
+    }
+
+    private static long nearestRank(long[] sorted, int size, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static List<WeekdayTotal> byDayOfWeek(long firstDay, long[] dayTotals, long[] dayCounts, long total) {
+        long[] totals = new long[7];
+        long[] counts = new long[7];
+        for (int day = 0; day < dayTotals.length; day++) {
+            int weekday = isoDayIndex(firstDay + day);
+            totals[weekday] += dayTotals[day];
+            counts[weekday] += dayCounts[day];
+        }
+        List<WeekdayTotal> weekdays = new ArrayList<>(7);
+        for (int weekday = 0; weekday < 7; weekday++) {
+            weekdays.add(new WeekdayTotal(DayOfWeek.of(weekday + 1), totals[weekday], counts[weekday],
+                    total == 0 ? 0 : totals[weekday] / (double) total));
+        }
+        return weekdays;
+    }
+
+    // 0 for Monday through 6 for Sunday; epoch day 0 (1970-01-01) was a Thursday
+    private static int isoDayIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensemanager.expensemanager.analytics;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+import com.expensemanager.expensemanager.service.ExpenseService;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Keeps one columnar snapshot per owner and data version: it is rebuilt by a single store scan only after a write
+// through ExpenseService has changed the owner's summary index version. Snapshots of owners analyzed least recently
+// are dropped once together they hold more than expensemanager.analytics.max-cached-rows rows.
+@Service
+public class ExpenseAnalyticsService {
+
+    private record Snapshot(String version, ExpenseColumns columns, Duration scanTime) {}
+
+    @Autowired
+    private ExpenseStore expenseStore;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    private final Cache<String, Snapshot> snapshots;
+
+    public ExpenseAnalyticsService(@Value("${expensemanager.analytics.max-cached-rows:10000000}") long maxCachedRows) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxCachedRows)
+                .weigher((String owner, Snapshot snapshot) -> Math.max(1, snapshot.columns().size()))
+                .build();
+    }
+
+    public AnalyticsReport analyze() {
+        // Read the version before scanning so a concurrent write can only make the snapshot look older than it is
+        String owner = TenantContext.current();
+        String version = expenseService.getDataVersion();
+        Snapshot current = snapshots.getIfPresent(owner);
+        if (current == null || !current.version().equals(version)) {
+            long start = System.nanoTime();
+            ExpenseColumns columns = ExpenseColumns.scan(expenseStore);
+            current = new Snapshot(version, columns, Duration.ofNanos(System.nanoTime() - start));
+            snapshots.put(owner, current);
+        }
+        return ExpenseAnalytics.analyze(current.columns(), current.scanTime());
+    }
+}
@@ -0,0 +1,119 @@
+package com.expensemanager.expensemanager.analytics;
+
+import java.util.Arrays;
+
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+import com.expensemanager.expensemanager.repository.ExpenseStore.AmountSink;
+
+// Column-oriented snapshot of every expense as two primitive arrays (epoch day, amount in sen) in
+// nondecreasing day order: 16 bytes per expense and no object per row. A rolled-up day is a single row holding the
+// day's total, with its expense count in a third array that only exists once such a row has been added.
+public final class ExpenseColumns {
+
+    private final long[] epochDays;
+    private final long[] amounts;
+    private final long[] counts;  // null while every row is one expense
+    private final int size;
+    private final long expenses;
+
+    private ExpenseColumns(long[] epochDays, long[] amounts, long[] counts, int size, long expenses) {
+        this.epochDays = epochDays;
+        this.amounts = amounts;
+        this.counts = counts;
+        this.size = size;
+        this.expenses = expenses;
+    }
+
+    // One scan of the store; its date order is what lets analytics split work at day boundaries
+    public static ExpenseColumns scan(ExpenseStore store) {
+        Builder builder = new Builder();
+        store.scanAmounts(null, null, builder);
+        return builder.build();
+    }
+
+    // Rows, which is fewer than expenses() once rolled-up days are included
+    public int size() {
+        return size;
+    }
+
+    public long expenses() {
+        return expenses;
+    }
+
+    public long epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public long amount(int row) {
+        return amounts[row];
+    }
+
+    public long count(int row) {
+        return counts == null ? 1 : counts[row];
+    }
+
+    // Package-private views for ExpenseAnalytics; only the first size() entries are valid
+    long[] epochDays() {
+        return epochDays;
+    }
+
+    long[] amounts() {
+        return amounts;
+    }
+
+    long[] counts() {
+        return counts;
+    }
+
+    public static final class Builder implements AmountSink {
+        private long[] epochDays = new long[1024];
+        private long[] amounts = new long[1024];
+        private long[] counts;
+        private int size;
+        private long expenses;
+
+        public Builder add(long epochDay, long amount) {
+            return addDay(epochDay, amount, 1);
+        }
+
+        // count expenses of one day that together amount to total
+        public Builder addDay(long epochDay, long total, long count) {
+            if (size > 0 && epochDay < epochDays[size - 1]) {
+                throw new IllegalArgumentException("Expenses must be added in date order");
+            }
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+                if (counts != null) {
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+            }
+            if (count != 1 && counts == null) {
+                counts = new long[epochDays.length];
+                Arrays.fill(counts, 0, size, 1);
+            }
+            epochDays[size] = epochDay;
+            amounts[size] = total;
+            if (counts != null) {
+                counts[size] = count;
+            }
+            size++;
+            expenses += count;
+            return this;
+        }
+
+        @Override
+        public void accept(long epochDay, long amount) {
+            add(epochDay, amount);
+        }
+
+        @Override
+        public void acceptDay(long epochDay, long total, long count) {
+            addDay(epochDay, total, count);
+        }
+
+        public ExpenseColumns build() {
+            return new ExpenseColumns(epochDays, amounts, counts, size, expenses);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Money;
+
+// JSON view of one day's aggregate with amounts in ringgit
+public record DailySummaryResponse(LocalDate date, BigDecimal total, long count, BigDecimal min, BigDecimal max) {
+
+    public static DailySummaryResponse from(DailySummary summary) {
+        return new DailySummaryResponse(summary.getDate(), Money.toDecimal(summary.getTotal()), summary.getCount(),
+                Money.toDecimal(summary.getMin()), Money.toDecimal(summary.getMax()));
+    }
+}
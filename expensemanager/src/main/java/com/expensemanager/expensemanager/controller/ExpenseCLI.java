@@ -1,28 +1,94 @@
 package com.expensemanager.expensemanager.controller;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import com.expensemanager.expensemanager.analytics.AnalyticsReport;
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.DailyTrend;
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.PeriodTotal;
+import com.expensemanager.expensemanager.analytics.ExpenseAnalyticsService;
+import com.expensemanager.expensemanager.metrics.MetricsSummary;
+import com.expensemanager.expensemanager.metrics.QueryBurstTracker;
 import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.Money;
+import com.expensemanager.expensemanager.repository.ExpensePage;
+import com.expensemanager.expensemanager.service.DailySummaryIndex.DayTotal;
+import com.expensemanager.expensemanager.service.ExpenseExportService;
+import com.expensemanager.expensemanager.service.ExpenseImportService;
+import com.expensemanager.expensemanager.service.ExpenseMigrationService;
+import com.expensemanager.expensemanager.service.ExpenseRollupService;
 import com.expensemanager.expensemanager.service.ExpenseService;
+import com.expensemanager.expensemanager.service.ExpenseWriteResult;
+import com.expensemanager.expensemanager.service.ExportReport;
+import com.expensemanager.expensemanager.service.ImportReport;
+import com.expensemanager.expensemanager.tenant.TenantContext;
 
+// Interactive menu on System.in; left out under the "server" profile so the REST API can start unattended
 @Component
+@Profile("!server")
 public class ExpenseCLI implements CommandLineRunner {
 
+    private static final int PAGE_SIZE = 20;  // Dates, expenses and search results listed per page
+
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @Autowired
+    private ExpenseExportService expenseExportService;
+
+    @Autowired  // Only available with the MongoDB backend; resolved on use so startup does not connect
+    private ObjectProvider<ExpenseMigrationService> expenseMigrationService;
+
+    @Autowired  // MongoDB backend only, like migrations
+    private ObjectProvider<ExpenseRollupService> expenseRollupService;
+
+    @Autowired
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
+    @Autowired
+    private QueryBurstTracker queryBursts;
+
+    @Autowired
+    private MetricsSummary metricsSummary;
+
+    // Whose expenses this session works on, e.g. --expensemanager.tenant.owner=alice
+    @Value("${expensemanager.tenant.owner:" + TenantContext.DEFAULT_OWNER + "}")
+    private String owner;
+
     private final Scanner scanner = new Scanner(System.in);
 
     @Override
     public void run(String... args) {
+        // The whole session, commands included, runs on this thread as one owner
+        TenantContext.set(owner);
+
+        // Non-option arguments select a non-interactive command, e.g. "import ledger.csv"
+        List<String> command = Arrays.stream(args)
+                .filter(arg -> !arg.startsWith("--"))
+                .collect(Collectors.toList());
+        if (!command.isEmpty()) {
+            System.exit(runCommand(command, parseOptions(args)));
+        }
+
         while (true) {
             System.out.println("\nExpense Manager");
             System.out.println("1. View Expenses");
@@ -31,76 +97,231 @@ public class ExpenseCLI implements CommandLineRunner {
             System.out.println("4. Edit Expense");
             System.out.println("5. Search Expenses by Name");
             System.out.println("6. Analyze Expenses");
-            System.out.println("7. Exit");
+            System.out.println("7. Check Summary Index");
+            System.out.println("8. Import Expenses");
+            System.out.println("9. Export Expenses");
+            System.out.println("10. Metrics Summary");
+            System.out.println("11. Exit");
             System.out.print("Enter choice: ");
             int choice = scanner.nextInt();
 
-            switch (choice) {
-                case 1 -> viewExpenses();
-                case 2 -> addExpense();
-                case 3 -> deleteExpense();
-                case 4 -> editExpense();
-                case 5 -> searchExpensesByName();
-                case 6 -> analyzeExpenses();
-                case 7 -> System.exit(0);
-                default -> System.out.println("Invalid choice. Try again.");
+            // Each menu action is one unit for query burst detection
+            queryBursts.track("cli " + choice, () -> {
+                switch (choice) {
+                    case 1 -> viewExpenses();
+                    case 2 -> addExpense();
+                    case 3 -> deleteExpense();
+                    case 4 -> editExpense();
+                    case 5 -> searchExpensesByName();
+                    case 6 -> analyzeExpenses();
+                    case 7 -> checkSummaryIndex();
+                    case 8 -> importExpenses();
+                    case 9 -> exportExpenses();
+                    case 10 -> printMetricsSummary();
+                    case 11 -> System.exit(0);
+                    default -> System.out.println("Invalid choice. Try again.");
+                }
+            });
+        }
+    }
+
+    // "--key=value" arguments; Spring also sees these, so command options avoid clashing property names
+    private static Map<String, String> parseOptions(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 2) {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private int runCommand(List<String> command, Map<String, String> options) {
+        switch (command.get(0)) {
+            case "import" -> {
+                if (command.size() != 2) {
+                    System.out.println("Usage: import <file.csv|file.jsonl> [--expensemanager.import.batch-size=N]");
+                    return 2;
+                }
+                ImportReport report = runImport(Path.of(command.get(1)));
+                return report != null && report.rejected() == 0 ? 0 : 1;
+            }
+            case "export" -> {
+                if (command.size() != 2) {
+                    System.out.println("Usage: export <file.csv|file.jsonl> [--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--name=text]");
+                    return 2;
+                }
+                LocalDate from;
+                LocalDate to;
+                try {
+                    from = options.containsKey("from") ? LocalDate.parse(options.get("from")) : null;
+                    to = options.containsKey("to") ? LocalDate.parse(options.get("to")) : null;
+                } catch (DateTimeParseException e) {
+                    System.out.println("Invalid date format: " + e.getParsedString());
+                    return 2;
+                }
+                return runExport(Path.of(command.get(1)), from, to, options.get("name")) != null ? 0 : 1;
+            }
+            case "migrate" -> {
+                ExpenseMigrationService migrations = expenseMigrationService.getIfAvailable();
+                if (migrations == null) {
+                    System.out.println("Nothing to migrate: migrations only apply to the MongoDB storage backend.");
+                    return 0;
+                }
+                migrations.migrateAll().forEach(System.out::println);
+                return 0;
+            }
+            case "rollup" -> {
+                ExpenseRollupService rollups = expenseRollupService.getIfAvailable();
+                if (rollups == null) {
+                    System.out.println("Nothing to roll up: archival only applies to the MongoDB storage backend.");
+                    return 0;
+                }
+                List<String> report = rollups.rollUpAll();
+                if (report.isEmpty()) {
+                    System.out.println("No expenses older than the rollup horizon.");
+                }
+                report.forEach(System.out::println);
+                return 0;
+            }
+            default -> {
+                System.out.println("Unknown command: " + command.get(0));
+                System.out.println("Commands: import <file>, export <file>, migrate, rollup");
+                return 2;
             }
         }
     }
 
     private void viewExpenses() {
-        // Fetch and display distinct dates
-        List<LocalDate> distinctDates = expenseService.getDistinctDates();
+        // Fetch per-date totals from the in-memory summary index (sorted oldest to latest)
+        List<DayTotal> days = expenseService.getDailyTotals();
 
         // Check if there are no expenses
-        if (distinctDates.isEmpty()) {
+        if (days.isEmpty()) {
             System.out.println("\nNo expenses exist.");
             return;
         }
 
-        // Sort the dates in chronological order (oldest to latest)
-        distinctDates.sort(LocalDate::compareTo);
+        List<LocalDate> distinctDates = days.stream()
+            .map(DayTotal::date)
+            .collect(Collectors.toList());
+        List<String> labels = days.stream()
+            .map(day -> String.format("%s (%d expenses, RM %s)", day.date(), day.count(), Money.format(day.total())))
+            .collect(Collectors.toList());
 
-        // Calculate and display grand total
-        double grandTotal = distinctDates.stream()
-            .flatMap(date -> expenseService.getExpensesByDate(date).stream())
-            .mapToDouble(Expense::getAmount)
-            .sum();
+        // Display grand total
+        long grandTotal = expenseService.getGrandTotal();
         System.out.printf("\n------------------------------");
-        System.out.printf("\n    Grand Total: RM %.2f   ", grandTotal);
+        System.out.printf("\n    Grand Total: RM %s   ", Money.format(grandTotal));
         System.out.printf("\n------------------------------");
 
         System.out.println("\n--- Expenses by Dates ---");
-        for (int i = 0; i < distinctDates.size(); i++) {
-            System.out.printf("%d. %s%n", i + 1, distinctDates.get(i));
-        }
 
         // Get user input to select a date
-        LocalDate selectedDate = getUserSelectedDate(distinctDates, false);
+        LocalDate selectedDate = getUserSelectedDate(distinctDates, labels, false);
         if (selectedDate == null) {
             System.out.println("Operation cancelled.");
             return;
         }
 
-        // Fetch and display expenses for the selected date
-        List<Expense> expenses = expenseService.getExpensesByDate(selectedDate);
-        double total = expenses.stream().mapToDouble(Expense::getAmount).sum();
-
+        // Display expenses for the selected date one page at a time
+        long total = expenseService.getDailyTotal(selectedDate).map(DayTotal::total).orElse(0L);
         System.out.printf("\n--- Expenses for %s ---\n", selectedDate);
-        expenses.forEach(expense -> System.out.printf("Name: %s, Amount: %.2f, Date: %s%n",
-                expense.getName(), expense.getAmount(), expense.getDate()));
-        System.out.printf("Total Amount: %.2f\n", total);
+        printExpensesForDate(selectedDate);
+        System.out.printf("Total Amount: %s\n", Money.format(total));
+    }
+
+    // Prints a day's expenses one keyset page at a time, asking before fetching each further page
+    private void printExpensesForDate(LocalDate date) {
+        String cursor = null;
+        do {
+            ExpensePage page = expenseService.getExpensesInRange(date, date, null, cursor, PAGE_SIZE);
+            page.expenses().forEach(expense -> System.out.printf("Name: %s, Amount: %s, Date: %s%n",
+                    expense.getName(), Money.format(expense.getAmount()), expense.getDate()));
+            cursor = page.nextCursor();
+        } while (cursor != null && askNextPage());
+    }
+
+    private boolean askNextPage() {
+        System.out.print("Show next page? (y/n): ");
+        return scanner.next().trim().equalsIgnoreCase("y");
+    }
+
+    // Pages through a day's expenses with running numbering until the user enters something other than "n".
+    // Returns the number entered (or null when it is not a number) together with the expense it refers to, if any.
+    private ExpenseChoice chooseExpense(LocalDate date, String prompt) {
+        String cursor = null;
+        int offset = 0;
+        while (true) {
+            ExpensePage page = expenseService.getExpensesInRange(date, date, null, cursor, PAGE_SIZE);
+            List<Expense> expenses = page.expenses();
+            for (int i = 0; i < expenses.size(); i++) {
+                Expense expense = expenses.get(i);
+                System.out.printf("%d. ID: %s, Name: %s, Amount: %s, Date: %s%n", offset + i + 1, expense.getId(), expense.getName(), Money.format(expense.getAmount()), expense.getDate());
+            }
+
+            System.out.print(prompt + (page.hasNext() ? ", n for next page): " : "): "));
+            String input = scanner.next().trim();
+            if (page.hasNext() && input.equalsIgnoreCase("n")) {
+                offset += expenses.size();
+                cursor = page.nextCursor();
+                continue;
+            }
+            Integer choice = parseIndex(input);
+            if (choice != null && choice > offset && choice <= offset + expenses.size()) {
+                return new ExpenseChoice(choice, expenses.get(choice - offset - 1));
+            }
+            return new ExpenseChoice(choice, null);
+        }
+    }
+
+    private record ExpenseChoice(Integer index, Expense expense) {}
+
+    private static Integer parseIndex(String input) {
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     private LocalDate getUserSelectedDate(List<LocalDate> dates, boolean allowNewDate) {
+        List<String> labels = dates.stream().map(LocalDate::toString).collect(Collectors.toList());
+        return getUserSelectedDate(dates, labels, allowNewDate);
+    }
+
+    // Shows the dates a page at a time (n/p to move between pages) and returns the one selected, or null when cancelled
+    private LocalDate getUserSelectedDate(List<LocalDate> dates, List<String> labels, boolean allowNewDate) {
+        int pageStart = 0;
+        printDatePage(labels, pageStart);
         while (true) { // Loop until a valid choice is made
+            boolean hasNext = pageStart + PAGE_SIZE < dates.size();
+            boolean hasPrevious = pageStart > 0;
+            String paging = (hasNext ? ", n for next page" : "") + (hasPrevious ? ", p for previous page" : "");
             if (allowNewDate) {
-                System.out.print("Select a date by entering its index (0 to create a new date, or -1 to cancel): ");
+                System.out.print("Select a date by entering its index (0 to create a new date" + paging + ", or -1 to cancel): ");
             } else {
-                System.out.print("Select a date by entering its index (-1 to cancel): ");
+                System.out.print("Select a date by entering its index (" + (paging.isEmpty() ? "" : paging.substring(2) + ", ") + "-1 to cancel): ");
             }
 
-            int choice = scanner.nextInt();
+            String input = scanner.next().trim();
+            if (hasNext && input.equalsIgnoreCase("n")) {
+                pageStart += PAGE_SIZE;
+                printDatePage(labels, pageStart);
+                continue;
+            }
+            if (hasPrevious && input.equalsIgnoreCase("p")) {
+                pageStart -= PAGE_SIZE;
+                printDatePage(labels, pageStart);
+                continue;
+            }
+
+            Integer choice = parseIndex(input);
+            if (choice == null) {
+                System.out.println("Invalid choice. Please try again.");
+                continue;
+            }
 
             if (choice == -1) {
                 return null; // User cancels
@@ -123,6 +344,16 @@ public class ExpenseCLI implements CommandLineRunner {
         }
     }
 
+    private static void printDatePage(List<String> labels, int pageStart) {
+        int pageEnd = Math.min(pageStart + PAGE_SIZE, labels.size());
+        for (int i = pageStart; i < pageEnd; i++) {
+            System.out.printf("%d. %s%n", i + 1, labels.get(i));
+        }
+        if (pageEnd < labels.size() || pageStart > 0) {
+            System.out.printf("(showing %d-%d of %d)%n", pageStart + 1, pageEnd, labels.size());
+        }
+    }
+
     private void addExpense() {
         // Fetch and display distinct dates
         List<LocalDate> distinctDates = expenseService.getDistinctDates();
@@ -131,9 +362,6 @@ public class ExpenseCLI implements CommandLineRunner {
         distinctDates.sort(LocalDate::compareTo);
 
         System.out.println("\n--- Available Dates ---");
-        for (int i = 0; i < distinctDates.size(); i++) {
-            System.out.printf("%d. %s%n", i + 1, distinctDates.get(i));
-        }
 
         // Get user input to select a date or create a new date
         LocalDate selectedDate = getUserSelectedDate(distinctDates, true);
@@ -142,14 +370,11 @@ public class ExpenseCLI implements CommandLineRunner {
             return;
         }
 
-        // Fetch and display expenses for the selected date
-        List<Expense> expenses = expenseService.getExpensesByDate(selectedDate);
-        double total = expenses.stream().mapToDouble(Expense::getAmount).sum();
-
+        // Display expenses for the selected date one page at a time
+        long total = expenseService.getDailyTotal(selectedDate).map(DayTotal::total).orElse(0L);
         System.out.printf("\n--- Expenses for %s ---\n", selectedDate);
-        expenses.forEach(expense -> System.out.printf("Name: %s, Amount: %.2f, Date: %s%n",
-                expense.getName(), expense.getAmount(), expense.getDate()));
-        System.out.printf("Total: %.2f\n", total);
+        printExpensesForDate(selectedDate);
+        System.out.printf("Total: %s\n", Money.format(total));
 
         // Add new expense
         scanner.nextLine(); // Consume newline
@@ -164,24 +389,24 @@ public class ExpenseCLI implements CommandLineRunner {
             }
         }
 
-        double amount = 0.0;
+        long amount = 0;
         while (true) {
             System.out.print("Enter amount: ");
             try {
-                amount = Double.parseDouble(scanner.nextLine());
+                amount = Money.parse(scanner.nextLine());
                 if (amount <= 0) {
                     System.out.println("Please enter a positive amount.");
                 } else {
                     break;
                 }
-            } catch (NumberFormatException e) {
+            } catch (IllegalArgumentException e) {
                 System.out.println("Please enter a valid amount.");
             }
         }
 
         // Save the validated expense
         Expense expense = expenseService.addExpense(name, amount, selectedDate);
-        System.out.printf("Added expense: %s, Amount: %.2f, Date: %s%n", expense.getName(), expense.getAmount(), selectedDate);
+        System.out.printf("Added expense: %s, Amount: %s, Date: %s%n", expense.getName(), Money.format(expense.getAmount()), selectedDate);
     }
 
     private void deleteExpense() {
@@ -192,9 +417,6 @@ public class ExpenseCLI implements CommandLineRunner {
         distinctDates.sort(LocalDate::compareTo);
         
         System.out.println("\n--- Available Dates ---");
-        for (int i = 0; i < distinctDates.size(); i++) {
-            System.out.printf("%d. %s%n", i + 1, distinctDates.get(i));
-        }
 
         // Get user input to select a date
         LocalDate selectedDate = getUserSelectedDate(distinctDates, false);
@@ -203,39 +425,33 @@ public class ExpenseCLI implements CommandLineRunner {
             return;
         }
 
-        // Fetch and display expenses for the selected date
-        List<Expense> expenses = expenseService.getExpensesByDate(selectedDate);
+        // Display expenses for the selected date and get user input to select an expense to delete
         System.out.printf("\n--- Expenses for %s ---\n", selectedDate);
-        for (int i = 0; i < expenses.size(); i++) {
-            Expense expense = expenses.get(i);
-            System.out.printf("%d. ID: %s, Name: %s, Amount: %.2f, Date: %s%n", i + 1, expense.getId(), expense.getName(), expense.getAmount(), expense.getDate());
-        }
-
-        // Get user input to select an expense to delete
-        System.out.print("Enter the index of the expense to delete (0 to delete all, -1 to quit): ");
-        int choice = scanner.nextInt();
+        ExpenseChoice choice = chooseExpense(selectedDate, "Enter the index of the expense to delete (0 to delete all, -1 to quit");
 
-        if (choice == -1) {
+        if (Integer.valueOf(-1).equals(choice.index())) {
             System.out.println("Operation cancelled.");
-        } else if (choice == 0) {
+        } else if (Integer.valueOf(0).equals(choice.index())) {
             // Confirm before deleting all expenses and the date
             System.out.print("Are you sure you want to delete ALL expenses and the date? (y/n): ");
             scanner.nextLine(); // Consume newline
             String confirmation = scanner.nextLine().trim().toLowerCase();
             if (confirmation.equals("y")) {
-                expenseService.deleteAllExpensesByDate(selectedDate);
+                long deleted = expenseService.deleteAllExpensesByDate(selectedDate);
             // expenseService.deleteDate(selectedDate); // Remove the date
-            System.out.println("All expenses for date " + selectedDate + " have been deleted.");
+            System.out.println("All " + deleted + " expenses for date " + selectedDate + " have been deleted.");
             } else {
                 System.out.println("Operation cancelled. No expenses or date were deleted.");
             }
-        } else if (choice > 0 && choice <= expenses.size()) {
-            // Delete a single expense
-            Expense expenseToDelete = expenses.get(choice - 1);
-            Optional<Expense> deletedExpense = expenseService.deleteExpense(expenseToDelete.getId());
-            deletedExpense.ifPresentOrElse(
-                    expense -> System.out.printf("Deleted expense: %s%n", expense.getName()),
-                    () -> System.out.println("Expense not found."));
+        } else if (choice.expense() != null) {
+            // Delete a single expense, unless it changed after it was listed
+            Expense expenseToDelete = choice.expense();
+            ExpenseWriteResult result = expenseService.deleteExpense(expenseToDelete.getId(), expenseToDelete.getVersion());
+            switch (result.status()) {
+                case APPLIED -> System.out.printf("Deleted expense: %s%n", result.expense().getName());
+                case CONFLICT -> printConflict(result.expense(), "deleted");
+                case NOT_FOUND -> System.out.println("Expense not found.");
+            }
         } else {
             System.out.println("Invalid choice. No expense deleted.");
         }
@@ -253,9 +469,6 @@ public class ExpenseCLI implements CommandLineRunner {
         distinctDates.sort(LocalDate::compareTo);
         
         System.out.println("\n--- Available Dates ---");
-        for (int i = 0; i < distinctDates.size(); i++) {
-            System.out.printf("%d. %s%n", i + 1, distinctDates.get(i));
-        }
 
         // Get user input to select a date
         LocalDate selectedDate = getUserSelectedDate(distinctDates, false);
@@ -264,22 +477,14 @@ public class ExpenseCLI implements CommandLineRunner {
             return;
         }
 
-        // Fetch and display expenses for the selected date
-        List<Expense> expenses = expenseService.getExpensesByDate(selectedDate);
+        // Display expenses for the selected date and get user input to select an expense to edit
         System.out.printf("\n--- Expenses for %s ---\n", selectedDate);
-        for (int i = 0; i < expenses.size(); i++) {
-            Expense expense = expenses.get(i);
-            System.out.printf("%d. ID: %s, Name: %s, Amount: %.2f, Date: %s%n", i + 1, expense.getId(), expense.getName(), expense.getAmount(), expense.getDate());
-        }
+        ExpenseChoice choice = chooseExpense(selectedDate, "Enter the index of the expense to edit (-1 to cancel");
 
-        // Get user input to select an expense to edit
-        System.out.print("Enter the index of the expense to edit (-1 to cancel): ");
-        int choice = scanner.nextInt() - 1;
-
-        if (choice == -2) {
+        if (Integer.valueOf(-1).equals(choice.index())) {
             System.out.println("Operation cancelled.");
-        } else if (choice >= 0 && choice < expenses.size()) {
-            Expense expenseToEdit = expenses.get(choice);
+        } else if (choice.expense() != null) {
+            Expense expenseToEdit = choice.expense();
 
             // Input validation for expense name
             scanner.nextLine(); // Consume newline
@@ -295,17 +500,17 @@ public class ExpenseCLI implements CommandLineRunner {
             }
 
             // Input validation for amount
-            double amount = 0.0;
+            long amount = 0;
             while (true) {
                 System.out.print("Enter new amount: ");
                 try {
-                    amount = Double.parseDouble(scanner.nextLine());
+                    amount = Money.parse(scanner.nextLine());
                     if (amount <= 0) {
                         System.out.println("Please enter a positive amount.");
                     } else {
                         break;
                     }
-                } catch (NumberFormatException e) {
+                } catch (IllegalArgumentException e) {
                     System.out.println("Please enter a valid amount.");
                 }
             }
@@ -315,63 +520,219 @@ public class ExpenseCLI implements CommandLineRunner {
             // String name = scanner.nextLine();
             // System.out.print("Enter new amount: ");
             // double amount = scanner.nextDouble();
-            Optional<Expense> editedExpense = expenseService.editExpense(expenseToEdit.getId(), name, amount);
-            editedExpense.ifPresentOrElse(
-                    expense -> System.out.printf("Updated expense: %s, Amount: %.2f%n", expense.getName(),
-                            expense.getAmount()),
-                    () -> System.out.println("Expense not found."));
+            ExpenseWriteResult result = expenseService.editExpense(expenseToEdit.getId(), expenseToEdit.getVersion(), name, amount);
+            switch (result.status()) {
+                case APPLIED -> System.out.printf("Updated expense: %s, Amount: %s%n", result.expense().getName(),
+                        Money.format(result.expense().getAmount()));
+                case CONFLICT -> printConflict(result.expense(), "edited");
+                case NOT_FOUND -> System.out.println("Expense not found.");
+            }
         } else {
             System.out.println("Invalid choice. No expense edited.");
         }
     }
 
+    // Another user or instance wrote the expense after it was listed here
+    private static void printConflict(Expense current, String action) {
+        System.out.printf("This expense was changed by someone else and is now: %s, Amount: %s. Nothing was %s; "
+                + "list it again to retry.%n", current.getName(), Money.format(current.getAmount()), action);
+    }
+
     private void searchExpensesByName() {
         scanner.nextLine(); // Consume newline
         System.out.print("Enter expense name to search: ");
         String name = scanner.nextLine();
     
-        // Fetch and display expenses with the given name
-        List<Expense> expenses = expenseService.getExpensesByName(name);
-        if (expenses.isEmpty()) {
-            System.out.println("No expenses found with the name: " + name);
-            return;
+        // Fetch and display ranked matches one page at a time
+        for (int page = 0; ; page++) {
+            List<Expense> expenses = expenseService.searchExpensesByName(name, page, PAGE_SIZE);
+            if (expenses.isEmpty()) {
+                if (page == 0) {
+                    System.out.println("No expenses found with the name: " + name);
+                }
+                return;
+            }
+
+            long total = expenses.stream().mapToLong(Expense::getAmount).sum();
+            System.out.printf("\n--- Expenses with name containing '%s' (page %d) ---\n", name, page + 1);
+            expenses.forEach(expense -> System.out.printf("ID: %s, Name: %s, Amount: %s, Date: %s%n",
+                    expense.getId(), expense.getName(), Money.format(expense.getAmount()), expense.getDate()));
+            System.out.printf("Page Total: %s\n", Money.format(total));
+
+            if (expenses.size() < PAGE_SIZE) {
+                return;
+            }
+            System.out.print("Show next page? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                return;
+            }
         }
-    
-        double total = expenses.stream().mapToDouble(Expense::getAmount).sum();
-        System.out.printf("\n--- Expenses with name containing '%s' ---\n", name);
-        expenses.forEach(expense -> System.out.printf("ID: %s, Name: %s, Amount: %.2f, Date: %s%n",
-                expense.getId(), expense.getName(), expense.getAmount(), expense.getDate()));
-        System.out.printf("Total: %.2f\n", total);
     }
 
     private void analyzeExpenses() {
-        // Fetch and display distinct dates
-        List<LocalDate> distinctDates = expenseService.getDistinctDates();
+        // Find the date with the most and least amount of expenses from the summary index
+        Optional<DayTotal> maxDay = expenseService.getMostExpensiveDay();
+        Optional<DayTotal> minDay = expenseService.getLeastExpensiveDay();
 
-        if (distinctDates.isEmpty()) {
+        if (maxDay.isEmpty()) {
             System.out.println("No expenses found.");
             return;
         }
 
-        // Find the date with the most and least amount of expenses
-        LocalDate maxDate = distinctDates.stream()
-                .max(Comparator.comparing(date -> expenseService.getExpensesByDate(date).stream().mapToDouble(Expense::getAmount).sum()))
-                .orElse(null);
+        maxDay.ifPresent(day -> {
+            System.out.printf("\n--- Date with Most Expenses ---\n");
+            System.out.printf("Date: %s, Total Amount: %s\n", day.date(), Money.format(day.total()));
+        });
 
-        LocalDate minDate = distinctDates.stream()
-                .min(Comparator.comparing(date -> expenseService.getExpensesByDate(date).stream().mapToDouble(Expense::getAmount).sum()))
-                .orElse(null);
+        minDay.ifPresent(day -> {
+            System.out.printf("\n--- Date with Least Expenses ---\n");
+            System.out.printf("Date: %s, Total Amount: %s\n", day.date(), Money.format(day.total()));
+        });
 
-        if (maxDate != null) {
-            double maxTotal = expenseService.getExpensesByDate(maxDate).stream().mapToDouble(Expense::getAmount).sum();
-            System.out.printf("\n--- Date with Most Expenses ---\n");
-            System.out.printf("Date: %s, Total Amount: %.2f\n", maxDate, maxTotal);
+        // Weekly/monthly statistics from a columnar snapshot of every expense
+        AnalyticsReport report = expenseAnalyticsService.analyze();
+        if (report.expenses() == 0) {
+            return;
         }
 
-        if (minDate != null) {
-            double minTotal = expenseService.getExpensesByDate(minDate).stream().mapToDouble(Expense::getAmount).sum();
-            System.out.printf("\n--- Date with Least Expenses ---\n");
-            System.out.printf("Date: %s, Total Amount: %.2f\n", minDate, minTotal);
+        System.out.printf("\n--- Last 12 Months ---\n");
+        for (PeriodTotal month : lastEntries(report.monthly(), 12)) {
+            System.out.printf("%s: %s (%d expenses)\n", month.start().toString().substring(0, 7),
+                    Money.format(month.total()), month.count());
+        }
+
+        System.out.printf("\n--- Last 8 Weeks ---\n");
+        for (PeriodTotal week : lastEntries(report.weekly(), 8)) {
+            System.out.printf("Week of %s: %s (%d expenses)\n", week.start(), Money.format(week.total()), week.count());
+        }
+
+        DailyTrend latest = report.recentTrend().get(report.recentTrend().size() - 1);
+        System.out.printf("\n--- Moving Averages at %s ---\n", latest.date());
+        // The averages are fractional sen; round to whole sen like every other amount on this screen
+        System.out.printf("7-day: %s, 30-day: %s\n",
+                Money.format(Math.round(latest.average7())), Money.format(Math.round(latest.average30())));
+
+        System.out.printf("\n--- Daily Spend Percentiles ---\n");
+        System.out.printf("p50: %s, p90: %s, p99: %s, max: %s\n",
+                Money.format(report.dailyPercentiles().p50()), Money.format(report.dailyPercentiles().p90()),
+                Money.format(report.dailyPercentiles().p99()), Money.format(report.dailyPercentiles().max()));
+
+        System.out.printf("\n--- Spend by Day of Week ---\n");
+        report.byDayOfWeek().forEach(day -> System.out.printf("%-9s %s (%.1f%%)\n",
+                day.day(), Money.format(day.total()), day.share() * 100));
+
+        System.out.printf("\n%d expenses from %s to %s (scan %d ms, compute %d ms)\n", report.expenses(),
+                report.firstDate(), report.lastDate(), report.snapshotTime().toMillis(), report.computeTime().toMillis());
+    }
+
+    private static <T> List<T> lastEntries(List<T> entries, int count) {
+        return entries.subList(Math.max(0, entries.size() - count), entries.size());
+    }
+
+    private void checkSummaryIndex() {
+        // Compare the in-memory summary index against the expenses collection
+        List<String> mismatches = expenseService.verifySummaryIndex();
+        expenseService.getCacheStatistics().forEach((name, stats) -> System.out.printf(
+                "Cache %s: %d entries, %d hits, %d misses, %d evictions (hit rate %.1f%%)%n",
+                name, stats.size(), stats.hits(), stats.misses(), stats.evictions(), stats.hitRate() * 100));
+        if (mismatches.isEmpty()) {
+            System.out.println("Summary index is consistent with the expenses collection.");
+            return;
         }
+
+        System.out.printf("\n--- %d Summary Index Mismatches ---\n", mismatches.size());
+        mismatches.forEach(System.out::println);
+
+        System.out.print("Rebuild the summary index from the collection? (y/n): ");
+        scanner.nextLine(); // Consume newline
+        String confirmation = scanner.nextLine().trim().toLowerCase();
+        if (confirmation.equals("y")) {
+            expenseService.rebuildSummaryIndex();
+            System.out.println("Summary index rebuilt.");
+        }
+    }
+
+    private void printMetricsSummary() {
+        // Live counters since startup: service and repository timers, Mongo commands and query bursts
+        metricsSummary.lines().forEach(System.out::println);
+    }
+
+    private void importExpenses() {
+        scanner.nextLine(); // Consume newline
+        System.out.print("Enter path of the CSV or JSONL file to import: ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) {
+            System.out.println("Operation cancelled.");
+            return;
+        }
+        runImport(Path.of(path));
+    }
+
+    private ImportReport runImport(Path path) {
+        ImportReport report;
+        try {
+            report = expenseImportService.importFile(path);
+        } catch (IOException e) {
+            System.out.println("Could not read " + path + ": " + e.getMessage());
+            return null;
+        }
+
+        System.out.printf("\n--- Import of %s ---\n", path);
+        System.out.printf("Rows read: %d, Inserted: %d, Rejected: %d%n", report.rowsRead(), report.inserted(), report.rejected());
+        System.out.printf("Elapsed: %.2f s (%.0f rows/s)%n", report.elapsed().toMillis() / 1000.0, report.rowsPerSecond());
+        report.errors().forEach(error -> System.out.printf("Line %d: %s%n", error.line(), error.message()));
+        if (report.rejected() > report.errors().size()) {
+            System.out.printf("... and %d more rejected rows%n", report.rejected() - report.errors().size());
+        }
+        return report;
+    }
+
+    private void exportExpenses() {
+        scanner.nextLine(); // Consume newline
+        System.out.print("Enter path of the CSV or JSONL file to write: ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) {
+            System.out.println("Operation cancelled.");
+            return;
+        }
+
+        // Optional filters, blank for none
+        LocalDate from = readOptionalDate("From date (YYYY-MM-DD, blank for no limit): ");
+        LocalDate to = readOptionalDate("To date (YYYY-MM-DD, blank for no limit): ");
+        System.out.print("Name contains (blank for any): ");
+        String name = scanner.nextLine().trim();
+
+        runExport(Path.of(path), from, to, name.isEmpty() ? null : name);
+    }
+
+    private LocalDate readOptionalDate(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(input);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date format. Please try again.");
+            }
+        }
+    }
+
+    private ExportReport runExport(Path path, LocalDate from, LocalDate to, String name) {
+        ExportReport report;
+        try {
+            report = expenseExportService.exportFile(path, from, to, name);
+        } catch (IOException e) {
+            System.out.println("Could not write " + path + ": " + e.getMessage());
+            return null;
+        }
+
+        System.out.printf("\n--- Export to %s ---\n", path);
+        System.out.printf("Documents: %d, Bytes: %d%n", report.documents(), report.bytes());
+        System.out.printf("Elapsed: %.2f s (%.0f docs/s, %.2f MB/s)%n", report.elapsed().toMillis() / 1000.0,
+                report.documentsPerSecond(), report.megabytesPerSecond());
+        return report;
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.Money;
+import com.expensemanager.expensemanager.repository.ExpenseEdit;
+import com.expensemanager.expensemanager.service.CacheStatistics;
+import com.expensemanager.expensemanager.service.ExpenseService;
+import com.expensemanager.expensemanager.service.ExpenseWriteResult;
+
+// REST mirror of ExpenseService. List endpoints send an ETag derived from the summary index version and the cache
+// expiry period (see ExpenseService.getDataVersion), so an unchanged If-None-Match is answered with 304 before any
+// database query runs, and writes made elsewhere show up within about two expiry periods. PUT and DELETE of one
+// expense take its version in If-Match and answer 412 with the current expense if it has changed since.
+@RestController
+@RequestMapping("/api/expenses")
+public class ExpenseController {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @GetMapping(params = "date")
+    public ResponseEntity<List<ExpenseResponse>> getByDate(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, WebRequest request) {
+        // Read the version before the data so a concurrent write can only make the tag older than the body
+        if (request.checkNotModified(expenseService.getDataVersion(date))) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.getExpensesByDate(date).stream().map(ExpenseResponse::from).toList());
+    }
+
+    @GetMapping(params = "!date")
+    public ResponseEntity<ExpensePageResponse> getRange(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        if (request.checkNotModified(expenseService.getDataVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok(ExpensePageResponse.from(
+                expenseService.getExpensesInRange(from, to, name, cursor, pageSize(size))));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ExpenseResponse>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        if (request.checkNotModified(expenseService.getDataVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.searchExpensesByName(q, Math.max(page, 0), pageSize(size)).stream()
+                .map(ExpenseResponse::from).toList());
+    }
+
+    @GetMapping("/dates")
+    public ResponseEntity<List<LocalDate>> getDates(WebRequest request) {
+        if (request.checkNotModified(expenseService.getDataVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.getDistinctDates());
+    }
+
+    @GetMapping("/summaries")
+    public ResponseEntity<List<DailySummaryResponse>> getSummaries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        if (request.checkNotModified(expenseService.getDataVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.getDailySummaries(from, to)
+                .stream().map(DailySummaryResponse::from).toList());
+    }
+
+    // Hit/miss/eviction counters of the per-day caches
+    @GetMapping("/cache-stats")
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        return expenseService.getCacheStatistics();
+    }
+
+    @PostMapping
+    public ResponseEntity<ExpenseResponse> add(@RequestBody ExpenseRequest body) {
+        if (body.date() == null) {
+            throw new IllegalArgumentException("Expense date is required");
+        }
+        Expense expense = expenseService.addExpense(body.name(), amount(body), body.date());
+        return ResponseEntity.created(URI.create("/api/expenses/" + expense.getId())).body(ExpenseResponse.from(expense));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ExpenseResponse> edit(@PathVariable String id, @RequestBody ExpenseRequest body,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return ResponseEntity.of(expenseService.editExpense(id, body.name(), amount(body)).map(ExpenseResponse::from));
+        }
+        return response(expenseService.editExpense(id, version(ifMatch), body.name(), amount(body)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ExpenseResponse> delete(@PathVariable String id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return ResponseEntity.of(expenseService.deleteExpense(id).map(ExpenseResponse::from));
+        }
+        return response(expenseService.deleteExpense(id, version(ifMatch)));
+    }
+
+    @DeleteMapping(params = "date")
+    public Map<String, Long> deleteByDate(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return Map.of("deleted", expenseService.deleteAllExpensesByDate(date));
+    }
+
+    // Edits many expenses in one bulk write; ids that do not exist or changed meanwhile are left out of the response
+    @PostMapping("/bulk-edit")
+    public List<ExpenseResponse> editAll(@RequestBody List<ExpenseEditRequest> body) {
+        List<ExpenseEdit> edits = body.stream()
+                .map(edit -> new ExpenseEdit(edit.id(), edit.name(), amount(edit.amount())))
+                .toList();
+        return expenseService.editExpenses(edits).stream().map(ExpenseResponse::from).toList();
+    }
+
+    // Deletes every listed id with one query and returns the expenses that were removed
+    @PostMapping("/bulk-delete")
+    public List<ExpenseResponse> deleteAll(@RequestBody List<String> ids) {
+        return expenseService.deleteExpenses(ids).stream().map(ExpenseResponse::from).toList();
+    }
+
+    // Validation failures from ExpenseService and Money surface as IllegalArgumentException
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail badRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    private static long amount(ExpenseRequest body) {
+        return amount(body.amount());
+    }
+
+    private static long amount(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        return Money.fromDecimal(amount);
+    }
+
+    private static ResponseEntity<ExpenseResponse> response(ExpenseWriteResult result) {
+        return switch (result.status()) {
+            case APPLIED -> ResponseEntity.ok(ExpenseResponse.from(result.expense()));
+            case CONFLICT -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ExpenseResponse.from(result.expense()));
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
+
+    // If-Match carries the version from an earlier response, as a plain number or a quoted entity tag
+    private static long version(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.startsWith("\"") && tag.endsWith("\"") && tag.length() > 1) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be the expense version, got: " + ifMatch);
+        }
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,6 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.math.BigDecimal;
+
+// One entry of a bulk edit: the expense id with its new name and amount (in ringgit)
+public record ExpenseEditRequest(String id, String name, BigDecimal amount) {}
@@ -0,0 +1,13 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.util.List;
+
+import com.expensemanager.expensemanager.repository.ExpensePage;
+
+// One keyset page; pass nextCursor back as the cursor parameter to fetch the following page
+public record ExpensePageResponse(List<ExpenseResponse> expenses, String nextCursor) {
+
+    public static ExpensePageResponse from(ExpensePage page) {
+        return new ExpensePageResponse(page.expenses().stream().map(ExpenseResponse::from).toList(), page.nextCursor());
+    }
+}
@@ -0,0 +1,7 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Request body for creating (name, amount, date) or editing (name, amount) an expense; amount is in ringgit
+public record ExpenseRequest(String name, BigDecimal amount, LocalDate date) {}
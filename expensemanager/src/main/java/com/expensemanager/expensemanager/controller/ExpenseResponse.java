@@ -0,0 +1,16 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.Money;
+
+// JSON view of an expense with the amount converted back from sen to ringgit. The version is what If-Match takes.
+public record ExpenseResponse(String id, String name, BigDecimal amount, LocalDate date, long version) {
+
+    public static ExpenseResponse from(Expense expense) {
+        return new ExpenseResponse(expense.getId(), expense.getName(), Money.toDecimal(expense.getAmount()), expense.getDate(),
+                expense.getVersion());
+    }
+}
@@ -0,0 +1,45 @@
+package com.expensemanager.expensemanager.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.expensemanager.expensemanager.service.ReactiveExpenseService;
+
+import reactor.core.publisher.Flux;
+
+// Streaming variants of the list endpoints, as NDJSON or server-sent events (chosen by the Accept header).
+// Spring MVC writes one element at a time and requests the next only after the previous write completes,
+// so a slow client pauses the Mongo cursor rather than filling the heap.
+@RestController
+@ConditionalOnProperty(name = "expensemanager.storage", havingValue = "mongo", matchIfMissing = true)
+@RequestMapping(value = "/api/stream/expenses", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+public class ExpenseStreamController {
+
+    @Autowired
+    private ReactiveExpenseService reactiveExpenseService;
+
+    @GetMapping(params = "date")
+    public Flux<ExpenseResponse> streamByDate(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return reactiveExpenseService.streamExpensesByDate(date).map(ExpenseResponse::from);
+    }
+
+    @GetMapping(params = "!date")
+    public Flux<ExpenseResponse> streamRange(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return reactiveExpenseService.streamExpensesInRange(from, to).map(ExpenseResponse::from);
+    }
+
+    @GetMapping("/search")
+    public Flux<ExpenseResponse> streamSearch(@RequestParam String q) {
+        return reactiveExpenseService.streamExpensesByName(q).map(ExpenseResponse::from);
+    }
+}
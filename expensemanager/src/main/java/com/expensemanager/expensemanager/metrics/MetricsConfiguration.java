@@ -0,0 +1,85 @@
+package com.expensemanager.expensemanager.metrics;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Wires the Micrometer instrumentation: @Timed service methods, the Mongo command listener (sync and reactive
+// clients) and per-request query burst tracking. Repository method timers come from Spring Boot's
+// spring.data.repository.invocations metric.
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(MeterRegistry registry, QueryBurstTracker queryBursts,
+            @Value("${expensemanager.metrics.slow-query-threshold:100ms}") Duration slowQueryThreshold) {
+        return new MongoCommandMetrics(registry, queryBursts, slowQueryThreshold);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics mongoCommandMetrics) {
+        return settings -> settings.addCommandListener(mongoCommandMetrics);
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class RequestActions implements WebMvcConfigurer {
+
+        private final QueryBurstTracker queryBursts;
+
+        RequestActions(QueryBurstTracker queryBursts) {
+            this.queryBursts = queryBursts;
+        }
+
+        // One action per handled request, named by its route pattern ("GET /api/expenses/{id}")
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new AsyncHandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                    if (handler instanceof HandlerMethod) {
+                        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                        queryBursts.begin(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+                    }
+                    return true;
+                }
+
+                @Override
+                public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                        Exception ex) {
+                    if (handler instanceof HandlerMethod) {
+                        queryBursts.end();
+                    }
+                }
+
+                // Streaming responses continue on another thread; close the action on the request thread
+                @Override
+                public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                        Object handler) {
+                    if (handler instanceof HandlerMethod) {
+                        queryBursts.end();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.expensemanager.expensemanager.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Plain-text snapshot of the hot-path meters for the CLI; the full set is at /actuator/prometheus
+@Component
+public class MetricsSummary {
+
+    private static final int MAX_ROWS = 15;  // Slowest entries shown per section, by total time
+
+    private final MeterRegistry registry;
+
+    public MetricsSummary(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        timers(lines, "Service operations", "expensemanager.service", "method");
+        timers(lines, "Repository methods", "spring.data.repository.invocations", "method");
+        timers(lines, "Mongo commands", "expensemanager.mongo.command", "command", "collection");
+
+        lines.add("");
+        lines.add("--- Mongo responses ---");
+        for (DistributionSummary documents : registry.find("expensemanager.mongo.command.documents").summaries()) {
+            String command = documents.getId().getTag("command") + " " + documents.getId().getTag("collection");
+            DistributionSummary bytes = registry.find("expensemanager.mongo.command.bytes")
+                    .tags(documents.getId().getTags()).summary();
+            lines.add(String.format("%-40s %10.0f docs %12.0f bytes", command, documents.totalAmount(),
+                    bytes != null ? bytes.totalAmount() : 0));
+        }
+
+        lines.add("");
+        lines.add("--- Query bursts (same query repeated within one action) ---");
+        for (Counter bursts : registry.find("expensemanager.query.bursts").counters()) {
+            lines.add(String.format("%-40s %10.0f", bursts.getId().getTag("action"), bursts.count()));
+        }
+        return lines;
+    }
+
+    private void timers(List<String> lines, String title, String name, String... labelTags) {
+        lines.add("");
+        lines.add("--- " + title + " ---");
+        lines.add(String.format("%-40s %8s %10s %10s %12s", "", "calls", "mean ms", "max ms", "total ms"));
+        registry.find(name).timers().stream()
+                .sorted(Comparator.comparingDouble((Timer timer) -> timer.totalTime(TimeUnit.MILLISECONDS)).reversed())
+                .limit(MAX_ROWS)
+                .forEach(timer -> {
+                    StringBuilder label = new StringBuilder();
+                    for (String tag : labelTags) {
+                        label.append(label.length() > 0 ? " " : "").append(timer.getId().getTag(tag));
+                    }
+                    lines.add(String.format("%-40s %8d %10.2f %10.2f %12.1f", label, timer.count(),
+                            timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS),
+                            timer.totalTime(TimeUnit.MILLISECONDS)));
+                });
+    }
+}
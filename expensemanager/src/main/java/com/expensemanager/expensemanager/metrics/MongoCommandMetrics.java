@@ -0,0 +1,170 @@
+package com.expensemanager.expensemanager.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Driver-level timing of every Mongo command, tagged by command and collection, with the documents and bytes
+// each response carried. Commands slower than the threshold are logged with their query shape (values as ?).
+public class MongoCommandMetrics implements CommandListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoCommandMetrics.class);
+
+    // Driver bookkeeping fields that say nothing about the query
+    private static final Set<String> IGNORED_FIELDS = Set.of("$db", "lsid", "$clusterTime", "txnNumber",
+            "$readPreference", "readConcern", "writeConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+    private static final int MAX_STRUCTURAL_ELEMENTS = 4;
+
+    private record Started(String collection, String shape) {}
+
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final QueryBurstTracker queryBursts;
+    private final Duration slowQueryThreshold;
+
+    public MongoCommandMetrics(MeterRegistry registry, QueryBurstTracker queryBursts, Duration slowQueryThreshold) {
+        this.registry = registry;
+        this.queryBursts = queryBursts;
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    // The command document is only valid during this callback, so the shape is captured here
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String commandName = event.getCommandName();
+        String collection = collection(commandName, command);
+        String shape = commandName + " " + collection + " " + shape(command, commandName);
+        inFlight.put(event.getRequestId(), new Started(collection, shape));
+        queryBursts.record(shape);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        String collection = started != null ? started.collection() : "unknown";
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        timer(event.getCommandName(), collection, "success").record(nanos, TimeUnit.NANOSECONDS);
+
+        BsonDocument response = event.getResponse();
+        DistributionSummary.builder("expensemanager.mongo.command.documents")
+                .description("Documents returned or affected per Mongo command")
+                .tags("command", event.getCommandName(), "collection", collection)
+                .register(registry)
+                .record(documents(response));
+        // The driver hands over replies as received, so their size is the wire size; replies it does not pass on
+        // raw (redacted sensitive commands, unacknowledged writes) carry no bytes worth counting
+        if (response instanceof RawBsonDocument raw) {
+            DistributionSummary.builder("expensemanager.mongo.command.bytes")
+                    .description("BSON size of each Mongo command response")
+                    .baseUnit("bytes")
+                    .tags("command", event.getCommandName(), "collection", collection)
+                    .register(registry)
+                    .record(raw.getByteBuffer().remaining());
+        }
+        logIfSlow(started, nanos);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        timer(event.getCommandName(), started != null ? started.collection() : "unknown", "failure")
+                .record(nanos, TimeUnit.NANOSECONDS);
+        logIfSlow(started, nanos);
+    }
+
+    private Timer timer(String command, String collection, String status) {
+        return Timer.builder("expensemanager.mongo.command")
+                .description("Mongo command round trips as seen by the driver")
+                .tags("command", command, "collection", collection, "status", status)
+                .register(registry);
+    }
+
+    private void logIfSlow(Started started, long nanos) {
+        if (started != null && nanos >= slowQueryThreshold.toNanos()) {
+            log.warn("Slow Mongo command ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), started.shape());
+        }
+    }
+
+    private static String collection(String commandName, BsonDocument command) {
+        BsonValue target = command.get("getMore".equals(commandName) ? "collection" : commandName);
+        return target != null && target.isString() ? target.asString().getValue() : "none";
+    }
+
+    // { filter: { date: ?, _id: { $gt: ? } }, sort: { date: ? } } -- field names and operators only
+    static String shape(BsonDocument command, String commandName) {
+        StringBuilder shape = new StringBuilder("{");
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            if (field.getKey().equals(commandName) || IGNORED_FIELDS.contains(field.getKey())) {
+                continue;
+            }
+            if (shape.length() > 1) {
+                shape.append(", ");
+            }
+            shape.append(field.getKey()).append(": ");
+            appendShape(shape, field.getValue());
+        }
+        return shape.append('}').toString();
+    }
+
+    private static void appendShape(StringBuilder shape, BsonValue value) {
+        if (value.isDocument()) {
+            shape.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                shape.append(first ? "" : ", ").append(field.getKey()).append(": ");
+                appendShape(shape, field.getValue());
+                first = false;
+            }
+            shape.append('}');
+        } else if (value.isArray()) {
+            // Pipelines and $or branches keep every element; values ($in lists, inserted documents) collapse to one
+            BsonArray array = value.asArray();
+            boolean structural = !array.isEmpty() && array.get(0).isDocument()
+                    && (array.size() <= MAX_STRUCTURAL_ELEMENTS
+                        || array.get(0).asDocument().keySet().stream().anyMatch(key -> key.startsWith("$")));
+            int shown = structural ? array.size() : Math.min(array.size(), 1);
+            shape.append('[');
+            for (int i = 0; i < shown; i++) {
+                shape.append(i > 0 ? ", " : "");
+                appendShape(shape, array.get(i));
+            }
+            shape.append(shown < array.size() ? ", ...]" : "]");
+        } else {
+            shape.append('?');
+        }
+    }
+
+    // Cursor batch size for queries, n for writes, 1 for a findAndModify that matched
+    private static int documents(BsonDocument response) {
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonValue batch = cursor.containsKey("firstBatch") ? cursor.get("firstBatch") : cursor.get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        if (response.containsKey("n") && response.get("n").isNumber()) {
+            return response.getNumber("n").intValue();
+        }
+        BsonValue value = response.get("value");
+        return value != null && value.isDocument() ? 1 : 0;
+    }
+}
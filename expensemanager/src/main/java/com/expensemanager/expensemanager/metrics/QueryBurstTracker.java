@@ -0,0 +1,91 @@
+package com.expensemanager.expensemanager.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Counts the Mongo commands issued on the current thread during one user action (a CLI menu choice or an HTTP
+// request). An action that sends the same query shape `query-burst-threshold` times or more is an N+1 burst.
+@Component
+public class QueryBurstTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBurstTracker.class);
+
+    private static final class Action {
+        private final String name;
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private int commands;
+        private int depth = 1;  // Nested begin() calls join the outermost action
+
+        private Action(String name) {
+            this.name = name;
+        }
+    }
+
+    private final ThreadLocal<Action> current = new ThreadLocal<>();
+    private final MeterRegistry registry;
+    private final int threshold;
+
+    public QueryBurstTracker(MeterRegistry registry, @Value("${expensemanager.metrics.query-burst-threshold:10}") int threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    public void begin(String action) {
+        Action existing = current.get();
+        if (existing != null) {
+            existing.depth++;
+        } else {
+            current.set(new Action(action));
+        }
+    }
+
+    public void end() {
+        Action action = current.get();
+        if (action == null || --action.depth > 0) {
+            return;
+        }
+        current.remove();
+        DistributionSummary.builder("expensemanager.action.commands")
+                .description("Mongo commands issued per user action")
+                .tag("action", action.name)
+                .register(registry)
+                .record(action.commands);
+        action.shapes.forEach((shape, count) -> {
+            if (count >= threshold) {
+                Counter.builder("expensemanager.query.bursts")
+                        .description("User actions that repeated one query shape at least the burst threshold")
+                        .tag("action", action.name)
+                        .register(registry)
+                        .increment();
+                log.warn("Query burst in {}: {} x {}", action.name, count, shape);
+            }
+        });
+    }
+
+    public void track(String action, Runnable work) {
+        begin(action);
+        try {
+            work.run();
+        } finally {
+            end();
+        }
+    }
+
+    // Called by MongoCommandMetrics on the thread that sends the command
+    void record(String shape) {
+        Action action = current.get();
+        if (action != null) {
+            action.commands++;
+            action.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.expensemanager.expensemanager.model;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+
+// Per-date projection produced by the daily summary aggregation in ExpenseRepository
+public class DailySummary {
+
+    @Id
+    private LocalDate date;  // Grouping key (_id of the $group stage)
+    private long total;  // Sum of all amounts on this date, in sen
+    private long count;  // Number of expenses on this date
+    private long min;  // Smallest single expense on this date
+    private long max;  // Largest single expense on this date
+
+    // Constructor
+    public DailySummary(LocalDate date, long total, long count, long min, long max) {
+        this.date = date;
+        this.total = total;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+    }
+
+    // Getters
+    public LocalDate getDate() { return date; }
+    public long getTotal() { return total; }
+    public long getCount() { return count; }
+    public long getMin() { return min; }
+    public long getMax() { return max; }
+}
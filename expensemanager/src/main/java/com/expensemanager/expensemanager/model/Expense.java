@@ -1,32 +1,62 @@
 package com.expensemanager.expensemanager.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 import java.time.LocalDate;
+import java.util.List;
 
+// Every query is scoped to one owner, so every index leads with it and a tenant's queries scan only its own key range.
+// (owner, date, _id) serves exact-date lookups, date ranges and keyset pagination; (owner, _id) serves single-document
+// writes and is the shard key, which keeps each tenant's documents together and lets mongos route by owner.
 @Document(collection = "expenses")
+@Sharded(shardKey = { "owner", "id" }, immutableKey = true)
+@CompoundIndex(name = "owner_date_id", def = "{ 'owner': 1, 'date': 1, '_id': 1 }")
+@CompoundIndex(name = "owner_id", def = "{ 'owner': 1, '_id': 1 }")
+@CompoundIndex(name = "owner_name", def = "{ 'owner': 1, 'name': 1 }")
+@CompoundIndex(name = "owner_nameLower", def = "{ 'owner': 1, 'nameLower': 1 }")
+@CompoundIndex(name = "owner_nameGrams", def = "{ 'owner': 1, 'nameGrams': 1 }")
 public class Expense {
 
     @Id
     private String id;  // Unique ID for each expense
+    private String owner;  // Tenant the expense belongs to (see TenantContext); never changes once saved
     private String name;  // Name of the expense
-    private double amount;  // Amount spent
+    private long amount;  // Amount spent, in sen (see Money)
     private LocalDate date;  // Date of the expense
+    @Version
+    private Long version;  // Incremented by every write; missing on documents written before versioning
+
+    // Search fields derived from name, kept in step by the constructor and setName (see NameTokens)
+    private String nameLower;  // Normalized name for exact/prefix matches
+    private List<String> nameGrams;  // Trigrams of nameLower for substring matches (multikey index)
 
     // Constructor
-    public Expense(String name, double amount, LocalDate date) {
-        this.name = name;
+    public Expense(String name, long amount, LocalDate date) {
         this.amount = amount;
         this.date = date;
+        setName(name);
     }
 
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setName(String name) {
+        this.name = name;
+        this.nameLower = NameTokens.normalize(name);
+        this.nameGrams = NameTokens.trigrams(nameLower);
+    }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
-}
\ No newline at end of file
+    public long getVersion() { return version == null ? 0 : version; }
+    public void setVersion(long version) { this.version = version; }
+    public String getNameLower() { return nameLower; }
+    public List<String> getNameGrams() { return nameGrams; }
+}
@@ -0,0 +1,42 @@
+package com.expensemanager.expensemanager.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Conversions between decimal ringgit text and the fixed-point amounts stored on Expense (whole sen, as a long)
+public final class Money {
+
+    public static final int SCALE = 2;  // Minor units per major unit = 10^SCALE
+
+    private Money() {
+    }
+
+    // "12.5" -> 1250; rejects anything that is not a whole number of sen
+    public static long parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        try {
+            return fromDecimal(new BigDecimal(text.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+
+    public static long fromDecimal(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE + " decimal places: " + amount.toPlainString());
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // 1250 -> "12.50"
+    public static String format(long minorUnits) {
+        return toDecimal(minorUnits).toPlainString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.expensemanager.expensemanager.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+
+// Totals of one owner's month whose expenses ExpenseRollupService moved to the archive collection. MongoExpenseStore
+// adds its days to the daily summaries of live expenses, so totals and analysis read one document per month instead
+// of every archived expense. Sharded like Expense, so an owner's rollups live with its expenses.
+@Document(collection = "expense_rollups")
+@Sharded(shardKey = { "owner", "id" }, immutableKey = true)
+@CompoundIndex(name = "owner_month", def = "{ 'owner': 1, 'month': 1 }", unique = true)
+public class MonthlyRollup {
+
+    @Id
+    private String id;  // owner/yyyy-MM, so rolling a month up again replaces its rollup
+    private String owner;  // Tenant the month belongs to
+    private LocalDate month;  // First day of the month
+    private long total;  // Sum of all archived amounts in the month, in sen
+    private long count;  // Number of archived expenses in the month
+    private List<DailySummary> days;  // Per-date totals of the archived expenses, oldest date first
+
+    // Constructor
+    public MonthlyRollup(String owner, LocalDate month, List<DailySummary> days) {
+        this.id = owner + "/" + month.toString().substring(0, 7);
+        this.owner = owner;
+        this.month = month.withDayOfMonth(1);
+        this.days = days;
+        for (DailySummary day : days) {
+            this.total += day.getTotal();
+            this.count += day.getCount();
+        }
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getOwner() { return owner; }
+    public LocalDate getMonth() { return month; }
+    public long getTotal() { return total; }
+    public long getCount() { return count; }
+    public List<DailySummary> getDays() { return days; }
+}
@@ -0,0 +1,34 @@
+package com.expensemanager.expensemanager.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Normalization and trigram tokenization behind the indexed name search fields on Expense
+public final class NameTokens {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private NameTokens() {
+    }
+
+    // Case-folded form used for exact, prefix and substring matching. Not trimmed, so a query keeps the same
+    // meaning as the case-insensitive substring search it replaces, spaces included
+    public static String normalize(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct overlapping trigrams of the normalized text; empty when shorter than a trigram
+    public static List<String> trigrams(String normalized) {
+        if (normalized == null || normalized.length() < GRAM_LENGTH) {
+            return List.of();
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return new ArrayList<>(grams);
+    }
+}
@@ -0,0 +1,26 @@
+package com.expensemanager.expensemanager.repository;
+
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+// Spring Data registers repositories as explicitly non-lazy (the MongoDB modules have no lazy bootstrap mode), so
+// spring.main.lazy-initialization alone still builds them, and the templates, clients and index creation behind
+// them, during startup. In the cli profile they are made lazy too; see MongoExpenseStore for the injection side.
+@Configuration(proxyBeanMethods = false)
+@Profile("cli")
+class CliRepositoryConfiguration {
+
+    // Static so it is registered without instantiating this configuration class
+    @Bean
+    static BeanFactoryPostProcessor lazyRepositories() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanNamesForType(RepositoryFactoryBeanSupport.class, true, false)) {
+                beanFactory.getBeanDefinition(BeanFactoryUtils.transformedBeanName(name)).setLazyInit(true);
+            }
+        };
+    }
+}
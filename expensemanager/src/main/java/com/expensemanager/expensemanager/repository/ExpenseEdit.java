@@ -0,0 +1,4 @@
+package com.expensemanager.expensemanager.repository;
+
+// New name and amount (in sen) for one expense in a bulk edit
+public record ExpenseEdit(String id, String name, long amount) {}
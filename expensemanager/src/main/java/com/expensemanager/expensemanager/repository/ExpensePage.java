@@ -0,0 +1,36 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import com.expensemanager.expensemanager.model.Expense;
+
+// One page of a (date, _id)-ordered listing; nextCursor is null on the last page
+public record ExpensePage(List<Expense> expenses, String nextCursor) {
+
+    private static final String CURSOR_SEPARATOR = "_";
+
+    // The (date, _id) of the previous page's last expense; the next page starts strictly after it
+    public record Cursor(LocalDate date, String id) {}
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public static String cursorAfter(Expense last) {
+        return last.getDate() + CURSOR_SEPARATOR + last.getId();
+    }
+
+    public static Cursor parseCursor(String cursor) {
+        int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        try {
+            return new Cursor(LocalDate.parse(cursor.substring(0, separator)), cursor.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
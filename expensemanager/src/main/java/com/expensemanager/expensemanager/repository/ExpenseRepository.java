@@ -3,18 +3,49 @@ package com.expensemanager.expensemanager.repository;
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import com.expensemanager.expensemanager.model.DailySummary;
 import com.expensemanager.expensemanager.model.Expense;
 
-public interface ExpenseRepository extends MongoRepository<Expense, String> {
-    List<Expense> findByDate(LocalDate date);
-    List<Expense> findByNameContainingIgnoreCase(String name);
+// Every query takes the owner and matches on it first, so it stays within that owner's range of the owner-led indexes
+public interface ExpenseRepository extends MongoRepository<Expense, String>, ExpenseRepositoryCustom {
+    Optional<Expense> findByOwnerAndId(String owner, String id);
+    List<Expense> findByOwnerAndDate(String owner, LocalDate date);
+    List<Expense> findByOwnerAndNameContainingIgnoreCase(String owner, String name);
+
+    // Single deleteMany({ owner, date }) returning the number of documents removed
+    long deleteByOwnerAndDate(String owner, LocalDate date);
 
     @Aggregation(pipeline = {
+            "{ $match: { owner: ?0 } }",
             "{ $group: { _id: '$date' } }"
     })
-    List<Date> findDistinctDates();
+    List<Date> findDistinctDates(String owner);
+
+    // One document per date with its total, count and min/max expense, oldest date first
+    @Aggregation(pipeline = {
+            "{ $match: { owner: ?0 } }",
+            "{ $group: { _id: '$date', total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' } } }",
+            "{ $sort: { _id: 1 } }"
+    })
+    List<DailySummary> findDailySummaries(String owner);
+
+    // Same as findDailySummaries, restricted to dates within [from, to]
+    @Aggregation(pipeline = {
+            "{ $match: { owner: ?0, date: { $gte: ?1, $lte: ?2 } } }",
+            "{ $group: { _id: '$date', total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' } } }",
+            "{ $sort: { _id: 1 } }"
+    })
+    List<DailySummary> findDailySummariesBetween(String owner, LocalDate from, LocalDate to);
+
+    // Exact int64 sum of every amount of the owner, null when it has no expenses
+    @Aggregation(pipeline = {
+            "{ $match: { owner: ?0 } }",
+            "{ $group: { _id: null, total: { $sum: '$amount' } } }"
+    })
+    Long sumAllAmounts(String owner);
 }
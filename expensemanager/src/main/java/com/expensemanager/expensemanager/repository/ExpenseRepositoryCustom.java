@@ -0,0 +1,50 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.expensemanager.expensemanager.model.Expense;
+
+// Operations that need MongoTemplate rather than derived queries; implemented by ExpenseRepositoryImpl.
+// Like the derived queries, each one only reads or writes documents of the given owner.
+public interface ExpenseRepositoryCustom {
+
+    // Insert all expenses, which already carry their owner, in one unordered bulk write; returns the failed
+    // positions mapped to their error
+    Map<Integer, String> insertUnordered(List<Expense> expenses);
+
+    // Cursor over expenses in (date, _id) order; null bounds or name mean no filter. Must be closed.
+    Stream<Expense> streamExpenses(String owner, LocalDate from, LocalDate to, String name);
+
+    // Projected (date, amount) scan over raw BSON in date order; see ExpenseStore.scanAmounts
+    void scanAmounts(String owner, LocalDate from, LocalDate to, ExpenseStore.AmountSink sink);
+
+    // Indexed case-insensitive substring search ranked exact > prefix > substring, then newest first.
+    // Equivalent in matches to findByOwnerAndNameContainingIgnoreCase, which stays as the unindexed reference.
+    List<Expense> searchByName(String owner, String query, int page, int size);
+
+    // Keyset page of expenses in [from, to] (null bounds and name mean no filter) ordered by (date, _id).
+    // The cursor is the nextCursor of the previous page, or null for the first page.
+    ExpensePage findPage(String owner, LocalDate from, LocalDate to, String name, String cursor, int size);
+
+    // Atomically $set name (and its search fields) and amount and $inc version in one findAndModify, matching only
+    // a document still at expectedVersion unless that is null; returns the document as it was
+    Optional<Expense> updateNameAndAmount(String owner, String id, Long expectedVersion, String name, long amount);
+
+    // Atomically remove one expense in one findAndModify, with the same version condition; returns the removed document
+    Optional<Expense> findAndDeleteById(String owner, String id, Long expectedVersion);
+
+    // Apply many edits as one unordered bulk write, each only to the version read just before; returns the edited
+    // documents as they were before the edit, leaving out those that are missing or changed in between
+    List<Expense> updateAll(String owner, List<ExpenseEdit> edits);
+
+    // Remove every expense with one of the ids; returns the removed documents
+    List<Expense> deleteAllByIdIn(String owner, List<String> ids);
+
+    // Remove many expenses as one unordered bulk write, each only if it is still at the given version (id -> version);
+    // returns the ids that were removed, leaving out those that are missing or changed
+    List<String> deleteAllAtVersions(String owner, Map<String, Long> versions);
+}
@@ -0,0 +1,298 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.NameTokens;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+
+public class ExpenseRepositoryImpl implements ExpenseRepositoryCustom {
+
+    // Documents fetched per getMore while streaming, which bounds the driver-side buffer
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final int SCAN_BATCH_SIZE = 10_000;  // Projected rows are small, so fewer, larger batches
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Expense> expenses) {
+        Map<Integer, String> failures = new TreeMap<>();
+        if (expenses.isEmpty()) {
+            return failures;
+        }
+        try {
+            // Unordered: the server keeps going past a failed document instead of aborting the batch
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class)
+                    .insert(expenses)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Stream<Expense> streamExpenses(String owner, LocalDate from, LocalDate to, String name) {
+        Query query = new Query(rangeCriteria(owner, from, to, name))
+                .with(Sort.by("date", "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Expense.class);
+    }
+
+    @Override
+    public void scanAmounts(String owner, LocalDate from, LocalDate to, ExpenseStore.AmountSink sink) {
+        // Dates are stored as the instant of local midnight, the same conversion Spring Data applies to LocalDate
+        Document range = new Document();
+        if (from != null) {
+            range.append("$gte", Date.from(from.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+        if (to != null) {
+            range.append("$lte", Date.from(to.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+        Document filter = new Document("owner", owner);
+        if (!range.isEmpty()) {
+            filter.append("date", range);
+        }
+
+        // Raw documents are read field by field from the wire buffer, with no Document or Expense per row
+        MongoCollection<RawBsonDocument> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Expense.class))
+                .withDocumentClass(RawBsonDocument.class);
+        try (MongoCursor<RawBsonDocument> cursor = collection.find(filter)
+                .projection(Projections.fields(Projections.include("date", "amount"), Projections.excludeId()))
+                .sort(Sorts.ascending("date"))
+                .batchSize(SCAN_BATCH_SIZE)
+                .cursor()) {
+            long lastMillis = Long.MIN_VALUE;
+            long epochDay = 0;
+            while (cursor.hasNext()) {
+                RawBsonDocument document = cursor.next();
+                long millis = document.getDateTime("date").getValue();
+                if (millis != lastMillis) {  // Sorted by date, so most rows reuse the previous conversion
+                    epochDay = LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toEpochDay();
+                    lastMillis = millis;
+                }
+                sink.accept(epochDay, document.getNumber("amount").longValue());
+            }
+        }
+    }
+
+    @Override
+    public ExpensePage findPage(String owner, LocalDate from, LocalDate to, String name, String cursor, int size) {
+        Criteria criteria = rangeCriteria(owner, from, to, name);
+        if (cursor != null) {
+            // Seek past the last (date, _id) of the previous page so every page is an index range scan, however deep
+            ExpensePage.Cursor after = ExpensePage.parseCursor(cursor);
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("date").gt(after.date()),
+                    Criteria.where("date").is(after.date()).and("_id").gt(after.id())));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by("date", "_id"))
+                .limit(size + 1);
+        List<Expense> expenses = mongoTemplate.find(query, Expense.class);
+        if (expenses.size() <= size) {
+            return new ExpensePage(expenses, null);
+        }
+        List<Expense> page = expenses.subList(0, size);
+        return new ExpensePage(page, ExpensePage.cursorAfter(page.get(size - 1)));
+    }
+
+    private static Criteria rangeCriteria(String owner, LocalDate from, LocalDate to, String name) {
+        Criteria criteria = Criteria.where("owner").is(owner);
+        if (from != null || to != null) {
+            criteria = criteria.and("date");
+            if (from != null) {
+                criteria = criteria.gte(from);
+            }
+            if (to != null) {
+                criteria = criteria.lte(to);
+            }
+        }
+        if (name != null && !name.isEmpty()) {
+            criteria = criteria.and("nameLower").regex(Pattern.quote(NameTokens.normalize(name)));
+        }
+        return criteria;
+    }
+
+    @Override
+    public List<Expense> searchByName(String owner, String query, int page, int size) {
+        String normalized = NameTokens.normalize(query);
+        List<String> grams = NameTokens.trigrams(normalized);
+
+        // Long queries narrow candidates through the trigram index; the regex then confirms contiguity.
+        // Queries shorter than a trigram scan the nameLower index keys instead of whole documents.
+        Criteria match = Criteria.where("owner").is(owner).and("nameLower").regex(Pattern.quote(normalized));
+        if (!grams.isEmpty()) {
+            match = match.and("nameGrams").all(grams);
+        }
+
+        Document rank = new Document("$switch", new Document("branches", List.of(
+                new Document("case", new Document("$eq", List.of("$nameLower", normalized))).append("then", 0),
+                // Anchored: compares only the leading characters instead of searching the whole name
+                new Document("case", new Document("$eq", List.of(new Document("$substrCP", List.of("$nameLower", 0,
+                        normalized.codePointCount(0, normalized.length()))), normalized)))
+                        .append("then", 1)))
+                .append("default", 2));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(match),
+                context -> new Document("$addFields", new Document("rank", rank)),
+                Aggregation.sort(Sort.by(Sort.Order.asc("rank"), Sort.Order.desc("date"), Sort.Order.asc("_id"))),
+                Aggregation.skip((long) page * size),
+                Aggregation.limit(size));
+        return mongoTemplate.aggregate(aggregation, Expense.class, Expense.class).getMappedResults();
+    }
+
+    @Override
+    public Optional<Expense> updateNameAndAmount(String owner, String id, Long expectedVersion, String name, long amount) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(byId(owner, id, expectedVersion), nameAndAmount(name, amount),
+                Expense.class));
+    }
+
+    @Override
+    public Optional<Expense> findAndDeleteById(String owner, String id, Long expectedVersion) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(byId(owner, id, expectedVersion), Expense.class));
+    }
+
+    @Override
+    public List<Expense> updateAll(String owner, List<ExpenseEdit> edits) {
+        if (edits.isEmpty()) {
+            return List.of();
+        }
+        // One query for the previous amounts, dates and versions (the summary index needs the deltas), then one bulk
+        // write whose every update only applies to the version that was read, like updateNameAndAmount
+        Query previousQuery = new Query(Criteria.where("owner").is(owner)
+                .and("_id").in(edits.stream().map(ExpenseEdit::id).toList()));
+        previousQuery.fields().include("name", "amount", "date", "version");
+        List<Expense> previous = mongoTemplate.find(previousQuery, Expense.class);
+        if (previous.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, ExpenseEdit> byId = new HashMap<>();
+        edits.forEach(edit -> byId.put(edit.id(), edit));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class);
+        for (Expense expense : previous) {
+            ExpenseEdit edit = byId.get(expense.getId());
+            bulk.updateOne(byId(owner, expense.getId(), expense.getVersion()), nameAndAmount(edit.name(), edit.amount()));
+        }
+        if (bulk.execute().getMatchedCount() == previous.size()) {
+            return previous;
+        }
+
+        // Some expenses changed between the read and the write. The bulk result only has counts, so read the versions
+        // again: an edit applied if its expense is now one version on and holds the edited values. Another writer
+        // editing the same expense within these two round trips can still hide an applied edit from this check.
+        Query appliedQuery = new Query(Criteria.where("owner").is(owner)
+                .and("_id").in(previous.stream().map(Expense::getId).toList()));
+        appliedQuery.fields().include("name", "amount", "version");
+        Map<String, Expense> current = new HashMap<>();
+        mongoTemplate.find(appliedQuery, Expense.class).forEach(expense -> current.put(expense.getId(), expense));
+        List<Expense> applied = new ArrayList<>();
+        for (Expense expense : previous) {
+            ExpenseEdit edit = byId.get(expense.getId());
+            Expense now = current.get(expense.getId());
+            if (now != null && now.getVersion() == expense.getVersion() + 1
+                    && now.getAmount() == edit.amount() && now.getName().equals(edit.name())) {
+                applied.add(expense);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public List<Expense> deleteAllByIdIn(String owner, List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return mongoTemplate.findAllAndRemove(new Query(Criteria.where("owner").is(owner).and("_id").in(ids)), Expense.class);
+    }
+
+    @Override
+    public List<String> deleteAllAtVersions(String owner, Map<String, Long> versions) {
+        // Read the versions first and leave out expenses already changed or deleted, so that a short count from the
+        // bulk write below only has to be explained for the one round trip in between
+        List<String> unchanged = versionsOf(owner, versions.keySet()).stream()
+                .filter(expense -> expense.getVersion() == versions.get(expense.getId()))
+                .map(Expense::getId)
+                .toList();
+        if (unchanged.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class);
+        unchanged.forEach(id -> bulk.remove(byId(owner, id, versions.get(id))));
+        if (bulk.execute().getDeletedCount() == unchanged.size()) {
+            return unchanged;
+        }
+
+        // Some changed during the bulk write. Those still present were edited; like updateAll, an expense another
+        // writer deleted within that round trip cannot be told apart from one removed here.
+        Set<String> present = new HashSet<>();
+        versionsOf(owner, unchanged).forEach(expense -> present.add(expense.getId()));
+        return unchanged.stream().filter(id -> !present.contains(id)).toList();
+    }
+
+    private List<Expense> versionsOf(String owner, Collection<String> ids) {
+        Query query = new Query(Criteria.where("owner").is(owner).and("_id").in(ids));
+        query.fields().include("version");
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    // The full shard key, so a write is routed to one shard, plus the compare half of a compare-and-set:
+    // documents written before versioning have no version field and count as 0
+    private static Query byId(String owner, String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("owner").is(owner).and("_id").is(id);
+        if (expectedVersion != null) {
+            criteria = expectedVersion == 0
+                    ? criteria.and("version").in(0L, null)
+                    : criteria.and("version").is(expectedVersion);
+        }
+        return new Query(criteria);
+    }
+
+    // $set only the fields an edit changes, keeping the derived search fields in step with the name, and move the
+    // version on so that writers holding the old one fail their condition
+    private static Update nameAndAmount(String name, long amount) {
+        String nameLower = NameTokens.normalize(name);
+        return new Update()
+                .set("name", name)
+                .set("nameLower", nameLower)
+                .set("nameGrams", NameTokens.trigrams(nameLower))
+                .set("amount", amount)
+                .inc("version", 1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Expense;
+
+// Storage operations the services depend on, so the backend can be chosen with expensemanager.storage:
+// "mongo" (default, MongoExpenseStore) or "embedded" (EmbeddedExpenseStore, a local memory-mapped log).
+// Semantics follow the MongoDB implementation; see ExpenseRepository and ExpenseRepositoryCustom.
+// Every operation only sees the expenses of TenantContext.current(); saved expenses without an owner get that one.
+public interface ExpenseStore {
+
+    // Receives one (date, amount) pair per expense during scanAmounts
+    interface AmountSink {
+        void accept(long epochDay, long amount);
+
+        // A whole day of archived expenses known only by their total and count (see MonthlyRollup)
+        void acceptDay(long epochDay, long total, long count);
+    }
+
+    // Inserts a new expense (assigning its id) or replaces the expense with the same id
+    Expense save(Expense expense);
+
+    // Insert all expenses, continuing past failures; returns the failed positions mapped to their error
+    Map<Integer, String> insertUnordered(List<Expense> expenses);
+
+    Optional<Expense> findById(String id);
+
+    List<Expense> findByDate(LocalDate date);
+
+    // Unindexed reference search: case-insensitive substring of name
+    List<Expense> findByNameContainingIgnoreCase(String name);
+
+    // Substring search ranked exact > prefix > substring, then newest first; page is zero-based
+    List<Expense> searchByName(String query, int page, int size);
+
+    // Keyset page in [from, to] ordered by (date, id); null bounds and name mean no filter
+    ExpensePage findPage(LocalDate from, LocalDate to, String name, String cursor, int size);
+
+    // All matching expenses in (date, id) order; null bounds and name mean no filter. Must be closed.
+    Stream<Expense> streamExpenses(LocalDate from, LocalDate to, String name);
+
+    // Feeds the date and amount of every expense in [from, to] to the sink in date order, in one scan and
+    // without building Expense objects; null bounds are open-ended. Rolled-up days arrive through acceptDay.
+    void scanAmounts(LocalDate from, LocalDate to, AmountSink sink);
+
+    // Per-date total, count, min and max, oldest date first, including rolled-up months
+    List<DailySummary> findDailySummaries();
+
+    List<DailySummary> findDailySummariesBetween(LocalDate from, LocalDate to);
+
+    // Sets name and amount and increments the version atomically, only if the expense is still at expectedVersion
+    // (null: any version); returns the expense as it was before the edit, or empty if it is missing or has moved on
+    Optional<Expense> updateNameAndAmount(String id, Long expectedVersion, String name, long amount);
+
+    // Edits that also increment the versions, each applied atomically to the expense as it was read; returns the edited
+    // expenses as they were before, leaving out those that are missing or were changed by another writer meanwhile
+    List<Expense> updateAll(List<ExpenseEdit> edits);
+
+    // Removes the expense only if it is still at expectedVersion (null: any version); returns what was removed
+    Optional<Expense> findAndDeleteById(String id, Long expectedVersion);
+
+    List<Expense> deleteAllByIdIn(List<String> ids);
+
+    // Returns the number of expenses removed
+    long deleteByDate(LocalDate date);
+}
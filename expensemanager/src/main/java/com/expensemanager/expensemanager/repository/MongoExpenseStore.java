@@ -0,0 +1,137 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.MonthlyRollup;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Default backend: every operation is a single ExpenseRepository call for the current owner; daily summaries and
+// amount scans also read the owner's MonthlyRollups
+@Component
+@ConditionalOnProperty(name = "expensemanager.storage", havingValue = "mongo", matchIfMissing = true)
+public class MongoExpenseStore implements ExpenseStore {
+
+    // A proxy resolved on first call, so in the cli profile (lazy beans) the repository, template and MongoDB client
+    // are only created, and the connection only opened, by the first command that needs them
+    @Autowired
+    @Lazy
+    private ExpenseRepository expenseRepository;
+
+    // Months archived by ExpenseRollupService; summaries and amount scans add them to the live expenses
+    @Autowired
+    @Lazy
+    private MonthlyRollupRepository rollupRepository;
+
+    @Override
+    public Expense save(Expense expense) {
+        assignOwner(expense);
+        return expenseRepository.save(expense);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Expense> expenses) {
+        expenses.forEach(MongoExpenseStore::assignOwner);
+        return expenseRepository.insertUnordered(expenses);
+    }
+
+    @Override
+    public Optional<Expense> findById(String id) {
+        return expenseRepository.findByOwnerAndId(owner(), id);
+    }
+
+    @Override
+    public List<Expense> findByDate(LocalDate date) {
+        return expenseRepository.findByOwnerAndDate(owner(), date);
+    }
+
+    @Override
+    public List<Expense> findByNameContainingIgnoreCase(String name) {
+        return expenseRepository.findByOwnerAndNameContainingIgnoreCase(owner(), name);
+    }
+
+    @Override
+    public List<Expense> searchByName(String query, int page, int size) {
+        return expenseRepository.searchByName(owner(), query, page, size);
+    }
+
+    @Override
+    public ExpensePage findPage(LocalDate from, LocalDate to, String name, String cursor, int size) {
+        return expenseRepository.findPage(owner(), from, to, name, cursor, size);
+    }
+
+    @Override
+    public Stream<Expense> streamExpenses(LocalDate from, LocalDate to, String name) {
+        return expenseRepository.streamExpenses(owner(), from, to, name);
+    }
+
+    @Override
+    public void scanAmounts(LocalDate from, LocalDate to, AmountSink sink) {
+        RollupMerge.scan(rollups(from, to), from, to, sink,
+                merging -> expenseRepository.scanAmounts(owner(), from, to, merging));
+    }
+
+    @Override
+    public List<DailySummary> findDailySummaries() {
+        return RollupMerge.summaries(rollups(null, null), expenseRepository.findDailySummaries(owner()), null, null);
+    }
+
+    @Override
+    public List<DailySummary> findDailySummariesBetween(LocalDate from, LocalDate to) {
+        return RollupMerge.summaries(rollups(from, to), expenseRepository.findDailySummariesBetween(owner(), from, to),
+                from, to);
+    }
+
+    @Override
+    public Optional<Expense> updateNameAndAmount(String id, Long expectedVersion, String name, long amount) {
+        return expenseRepository.updateNameAndAmount(owner(), id, expectedVersion, name, amount);
+    }
+
+    @Override
+    public List<Expense> updateAll(List<ExpenseEdit> edits) {
+        return expenseRepository.updateAll(owner(), edits);
+    }
+
+    @Override
+    public Optional<Expense> findAndDeleteById(String id, Long expectedVersion) {
+        return expenseRepository.findAndDeleteById(owner(), id, expectedVersion);
+    }
+
+    @Override
+    public List<Expense> deleteAllByIdIn(List<String> ids) {
+        return expenseRepository.deleteAllByIdIn(owner(), ids);
+    }
+
+    @Override
+    public long deleteByDate(LocalDate date) {
+        return expenseRepository.deleteByOwnerAndDate(owner(), date);
+    }
+
+    private List<MonthlyRollup> rollups(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return rollupRepository.findByOwnerOrderByMonth(owner());
+        }
+        return rollupRepository.findMonthsBetween(owner(),
+                from != null ? from.withDayOfMonth(1) : LocalDate.of(1, 1, 1), to != null ? to : LocalDate.of(9999, 12, 31));
+    }
+
+    private static String owner() {
+        return TenantContext.current();
+    }
+
+    private static void assignOwner(Expense expense) {
+        if (expense.getOwner() == null) {
+            expense.setOwner(owner());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import com.expensemanager.expensemanager.model.MonthlyRollup;
+
+// Rollups are read whole per owner: a few hundred small documents even for decades of history
+public interface MonthlyRollupRepository extends MongoRepository<MonthlyRollup, String> {
+    List<MonthlyRollup> findByOwnerOrderByMonth(String owner);
+
+    // Rollups of the months overlapping [from, to], where from is the first day of its month
+    @Query(value = "{ owner: ?0, month: { $gte: ?1, $lte: ?2 } }", sort = "{ month: 1 }")
+    List<MonthlyRollup> findMonthsBetween(String owner, LocalDate from, LocalDate to);
+}
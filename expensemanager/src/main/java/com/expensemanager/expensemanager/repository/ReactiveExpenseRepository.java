@@ -0,0 +1,47 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.expensemanager.expensemanager.model.Expense;
+
+import reactor.core.publisher.Flux;
+
+// Reactive counterpart of ExpenseRepository for streaming large result sets. The driver only fetches the next
+// cursor batch once subscribers have requested it, so a slow consumer holds back the query instead of buffering.
+// The owner is a parameter rather than read from TenantContext, which does not follow a Flux across threads.
+public interface ReactiveExpenseRepository extends ReactiveMongoRepository<Expense, String> {
+
+    int STREAM_BATCH_SIZE = 200;
+
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    Flux<Expense> findByOwnerAndDate(String owner, LocalDate date, Sort sort);
+
+    // Inclusive range, unlike the exclusive Between keyword with plain bounds
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    Flux<Expense> findByOwnerAndDateBetween(String owner, Range<LocalDate> range, Sort sort);
+
+    // All of the owner's expenses in (date, _id) order; a fully unbounded Range would render as { date: {} } and match nothing
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    @Query(value = "{ 'owner': ?0 }", sort = "{ 'date': 1, '_id': 1 }")
+    Flux<Expense> streamAll(String owner);
+
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    Flux<Expense> findByOwnerAndNameContainingIgnoreCase(String owner, String name);
+
+    // Indexed substring match (see ExpenseRepositoryImpl.searchByName) streamed in date order instead of ranked
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    @Query(value = "{ 'owner': ?0, 'nameGrams': { $all: ?1 }, 'nameLower': { $regex: ?2 } }", sort = "{ 'date': 1, '_id': 1 }")
+    Flux<Expense> findByNameGrams(String owner, List<String> grams, String pattern);
+
+    // Fallback for queries shorter than a trigram
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    @Query(value = "{ 'owner': ?0, 'nameLower': { $regex: ?1 } }", sort = "{ 'date': 1, '_id': 1 }")
+    Flux<Expense> findByNameLowerMatching(String owner, String pattern);
+}
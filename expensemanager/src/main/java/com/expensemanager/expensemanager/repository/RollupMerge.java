@@ -0,0 +1,97 @@
+package com.expensemanager.expensemanager.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.MonthlyRollup;
+import com.expensemanager.expensemanager.repository.ExpenseStore.AmountSink;
+
+// Combines the per-date totals kept in MonthlyRollups with live expenses. A date can have both when an expense was
+// added to a month after it was rolled up; the next rollup archives that expense too. Null bounds are open-ended.
+final class RollupMerge {
+
+    private RollupMerge() {
+    }
+
+    // Live and rolled-up summaries added together per date, oldest date first
+    static List<DailySummary> summaries(List<MonthlyRollup> rollups, List<DailySummary> live, LocalDate from, LocalDate to) {
+        List<DailySummary> rolledUp = days(rollups, from, to);
+        if (rolledUp.isEmpty()) {
+            return live;
+        }
+        TreeMap<LocalDate, DailySummary> merged = new TreeMap<>();
+        for (DailySummary day : rolledUp) {
+            merged.put(day.getDate(), day);
+        }
+        for (DailySummary day : live) {
+            merged.merge(day.getDate(), day, RollupMerge::add);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    // Runs liveScan and feeds the rolled-up days to the sink in between its rows, keeping the sink's date order
+    static void scan(List<MonthlyRollup> rollups, LocalDate from, LocalDate to, AmountSink sink, Consumer<AmountSink> liveScan) {
+        List<DailySummary> rolledUp = days(rollups, from, to);
+        if (rolledUp.isEmpty()) {
+            liveScan.accept(sink);
+            return;
+        }
+        InterleavingSink interleaving = new InterleavingSink(rolledUp.iterator(), sink);
+        liveScan.accept(interleaving);
+        interleaving.emitUpTo(Long.MAX_VALUE);
+    }
+
+    private static final class InterleavingSink implements AmountSink {
+        private final Iterator<DailySummary> rolledUp;
+        private final AmountSink sink;
+        private DailySummary next;
+
+        InterleavingSink(Iterator<DailySummary> rolledUp, AmountSink sink) {
+            this.rolledUp = rolledUp;
+            this.sink = sink;
+            this.next = rolledUp.next();
+        }
+
+        @Override
+        public void accept(long epochDay, long amount) {
+            emitUpTo(epochDay);
+            sink.accept(epochDay, amount);
+        }
+
+        @Override
+        public void acceptDay(long epochDay, long total, long count) {
+            emitUpTo(epochDay);
+            sink.acceptDay(epochDay, total, count);
+        }
+
+        // Rolled-up days up to and including epochDay
+        void emitUpTo(long epochDay) {
+            while (next != null && next.getDate().toEpochDay() <= epochDay) {
+                sink.acceptDay(next.getDate().toEpochDay(), next.getTotal(), next.getCount());
+                next = rolledUp.hasNext() ? rolledUp.next() : null;
+            }
+        }
+    }
+
+    private static List<DailySummary> days(List<MonthlyRollup> rollups, LocalDate from, LocalDate to) {
+        List<DailySummary> days = new ArrayList<>();
+        for (MonthlyRollup rollup : rollups) {
+            for (DailySummary day : rollup.getDays()) {
+                if ((from == null || !day.getDate().isBefore(from)) && (to == null || !day.getDate().isAfter(to))) {
+                    days.add(day);
+                }
+            }
+        }
+        return days;
+    }
+
+    private static DailySummary add(DailySummary a, DailySummary b) {
+        return new DailySummary(a.getDate(), a.getTotal() + b.getTotal(), a.getCount() + b.getCount(),
+                Math.min(a.getMin(), b.getMin()), Math.max(a.getMax(), b.getMax()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.expensemanager.expensemanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Snapshot of one cache's counters since startup; evictions count size- and time-based removals, not invalidations
+public record CacheStatistics(long size, long hits, long misses, long evictions, double hitRate) {
+
+    static CacheStatistics of(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+}
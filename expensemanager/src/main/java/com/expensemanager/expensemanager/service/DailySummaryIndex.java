@@ -0,0 +1,184 @@
+package com.expensemanager.expensemanager.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+
+// In-memory date -> (running total, count) index kept in step with the writes made through ExpenseService.
+// Reads are lock-free; writes are serialized so the by-date and by-total views always agree.
+// Only writes made through this instance are seen, so other writers call for verify/rebuild (see ExpenseService).
+// A store write and its index change run as one write(...), which a load from the store never falls between.
+public class DailySummaryIndex {
+
+    public record DayTotal(LocalDate date, long total, long count) {}
+
+    private static final Comparator<DayTotal> BY_TOTAL = Comparator
+            .comparingLong(DayTotal::total)
+            .thenComparing(DayTotal::date);
+
+    private final ConcurrentSkipListMap<LocalDate, DayTotal> byDate = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<DayTotal> byTotal = new ConcurrentSkipListSet<>(BY_TOTAL);
+    private volatile long grandTotal;
+    private volatile boolean loaded;
+
+    // Shared by writes, exclusive while loading: a write whose store change is in the snapshot has either had its
+    // index change ignored (not loaded yet) or overwritten by the load, and every later write is applied on top
+    private final ReadWriteLock snapshot = new ReentrantReadWriteLock();
+
+    // Change counters for cheap ETags: bumped on every write, reset (with a new epoch) on every load
+    private final ConcurrentHashMap<LocalDate, Long> dayRevisions = new ConcurrentHashMap<>();
+    private volatile long revision;
+    private volatile String epoch = "0";
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Runs a store write together with the index change it makes
+    public <T> T write(Supplier<T> write) {
+        snapshot.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            snapshot.readLock().unlock();
+        }
+    }
+
+    // Reads the summaries from the store and replaces the whole index with them, with no write in between
+    public void load(Supplier<List<DailySummary>> summaries) {
+        snapshot.writeLock().lock();
+        try {
+            load(summaries.get());
+        } finally {
+            snapshot.writeLock().unlock();
+        }
+    }
+
+    // Loads from the store unless an earlier call already did
+    public void loadOnce(Supplier<List<DailySummary>> summaries) {
+        snapshot.writeLock().lock();
+        try {
+            if (!loaded) {
+                load(summaries.get());
+            }
+        } finally {
+            snapshot.writeLock().unlock();
+        }
+    }
+
+    // Replace the whole index with the given per-date summaries
+    public synchronized void load(List<DailySummary> summaries) {
+        byDate.clear();
+        byTotal.clear();
+        long sum = 0;
+        for (DailySummary summary : summaries) {
+            DayTotal day = new DayTotal(summary.getDate(), summary.getTotal(), summary.getCount());
+            byDate.put(day.date(), day);
+            byTotal.add(day);
+            sum += day.total();
+        }
+        grandTotal = sum;
+        dayRevisions.clear();
+        revision = 0;
+        epoch = Long.toHexString(System.nanoTime());
+        loaded = true;
+    }
+
+    public void add(LocalDate date, long amount) {
+        adjust(date, amount, 1);
+    }
+
+    public void remove(LocalDate date, long amount) {
+        adjust(date, -amount, -1);
+    }
+
+    // Apply a change in total and count to a single date, dropping the date once it has no expenses left
+    public synchronized void adjust(LocalDate date, long totalDelta, long countDelta) {
+        if (!loaded) {
+            return; // The first load will pick the change up from the collection
+        }
+        DayTotal previous = byDate.get(date);
+        long total = totalDelta;
+        long count = countDelta;
+        if (previous != null) {
+            byTotal.remove(previous);
+            total += previous.total();
+            count += previous.count();
+        }
+        if (count > 0) {
+            DayTotal updated = new DayTotal(date, total, count);
+            byDate.put(date, updated);
+            byTotal.add(updated);
+        } else {
+            byDate.remove(date);
+        }
+        grandTotal += totalDelta;
+        touch(date);
+    }
+
+    public synchronized void removeDate(LocalDate date) {
+        if (!loaded) {
+            return;
+        }
+        DayTotal previous = byDate.remove(date);
+        if (previous != null) {
+            byTotal.remove(previous);
+            grandTotal -= previous.total();
+        }
+        touch(date);
+    }
+
+    private void touch(LocalDate date) {
+        dayRevisions.merge(date, 1L, Long::sum);
+        revision++;
+    }
+
+    // Opaque version of the whole index; changes whenever any date changes
+    public String version() {
+        return epoch + "-" + revision;
+    }
+
+    // Opaque version of a single date; changes whenever that date is written
+    public String version(LocalDate date) {
+        return epoch + "-" + dayRevisions.getOrDefault(date, 0L);
+    }
+
+    // Dates in chronological order (oldest to latest)
+    public List<LocalDate> dates() {
+        return new ArrayList<>(byDate.keySet());
+    }
+
+    public List<DayTotal> days() {
+        return new ArrayList<>(byDate.values());
+    }
+
+    public Optional<DayTotal> get(LocalDate date) {
+        return Optional.ofNullable(byDate.get(date));
+    }
+
+    public long grandTotal() {
+        return grandTotal;
+    }
+
+    // Iterators rather than first()/last() so a concurrent removal of the last day cannot throw
+    public Optional<DayTotal> maxDay() {
+        Iterator<DayTotal> it = byTotal.descendingIterator();
+        return it.hasNext() ? Optional.of(it.next()) : Optional.empty();
+    }
+
+    public Optional<DayTotal> minDay() {
+        Iterator<DayTotal> it = byTotal.iterator();
+        return it.hasNext() ? Optional.of(it.next()) : Optional.empty();
+    }
+}
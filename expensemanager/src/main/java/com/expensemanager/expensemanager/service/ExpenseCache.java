@@ -0,0 +1,104 @@
+package com.expensemanager.expensemanager.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpensePage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Bounded read-through cache of per-day expense lists and per-day keyset pages, keyed by owner and date.
+// ExpenseService invalidates a date on every write to it; the expiry bounds staleness from other writers.
+// A load that overlaps any invalidation is dropped again after it is returned, since it may have read the store
+// before the write (Caffeine does not make key-set removals wait for loads in flight).
+@Component
+public class ExpenseCache {
+
+    record DayKey(String owner, LocalDate date) {}
+
+    // One keyset page of a single day, as requested by the CLI and the range endpoint
+    record DayPageKey(String owner, LocalDate date, String cursor, int size) {}
+
+    private final Cache<DayKey, List<Expense>> days;
+    private final Cache<DayPageKey, ExpensePage> dayPages;
+    private final Duration expireAfterWrite;
+
+    // Bumped before every invalidation
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ExpenseCache(@Value("${expensemanager.cache.maximum-size:1000}") long maximumSize,
+                        @Value("${expensemanager.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.dayPages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    // Cached lists are unmodifiable because every caller shares them
+    public List<Expense> day(String owner, LocalDate date, Function<LocalDate, List<Expense>> loader) {
+        DayKey dayKey = new DayKey(owner, date);
+        long before = invalidations.get();
+        List<Expense> expenses = days.get(dayKey, key -> List.copyOf(loader.apply(key.date())));
+        if (invalidations.get() != before) {
+            days.invalidate(dayKey);
+        }
+        return expenses;
+    }
+
+    public ExpensePage dayPage(String owner, LocalDate date, String cursor, int size, Supplier<ExpensePage> loader) {
+        DayPageKey pageKey = new DayPageKey(owner, date, cursor, size);
+        long before = invalidations.get();
+        ExpensePage cached = dayPages.get(pageKey, key -> {
+            ExpensePage page = loader.get();
+            return new ExpensePage(List.copyOf(page.expenses()), page.nextCursor());
+        });
+        if (invalidations.get() != before) {
+            dayPages.invalidate(pageKey);
+        }
+        return cached;
+    }
+
+    // Number of whole expiry periods since the epoch; moves on at least as often as cached entries expire
+    public long expiryPeriod() {
+        return System.currentTimeMillis() / Math.max(1, expireAfterWrite.toMillis());
+    }
+
+    // Drop the list and every cached page of one owner's date
+    public void invalidate(String owner, LocalDate date) {
+        invalidations.incrementAndGet();
+        days.invalidate(new DayKey(owner, date));
+        dayPages.asMap().keySet().removeIf(key -> key.date().equals(date) && key.owner().equals(owner));
+    }
+
+    public void invalidateOwner(String owner) {
+        invalidations.incrementAndGet();
+        days.asMap().keySet().removeIf(key -> key.owner().equals(owner));
+        dayPages.asMap().keySet().removeIf(key -> key.owner().equals(owner));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        days.invalidateAll();
+        dayPages.invalidateAll();
+    }
+
+    public Map<String, CacheStatistics> statistics() {
+        return Map.of("days", CacheStatistics.of(days), "dayPages", CacheStatistics.of(dayPages));
+    }
+}
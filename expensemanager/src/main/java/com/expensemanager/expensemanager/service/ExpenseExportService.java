@@ -0,0 +1,81 @@
+package com.expensemanager.expensemanager.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+
+// Streams expenses from the store (a Mongo cursor by default), in date order, to a CSV or JSON Lines file.
+// Heap use is one cursor batch plus one write buffer regardless of collection size.
+@Service
+public class ExpenseExportService {
+
+    @Autowired
+    private ExpenseStore expenseStore;
+
+    @Value("${expensemanager.export.buffer-size:262144}")
+    private int bufferSize;
+
+    public ExportReport exportFile(Path path, LocalDate from, LocalDate to, String name) throws IOException {
+        return exportFile(path, ExpenseFileFormat.fromPath(path), from, to, name);
+    }
+
+    public ExportReport exportFile(Path path, ExpenseFileFormat format, LocalDate from, LocalDate to, String name) throws IOException {
+        long start = System.nanoTime();
+        ExpenseRecordCodec codec = new ExpenseRecordCodec(format);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long documents = 0;
+        long bytes = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                Stream<Expense> expenses = expenseStore.streamExpenses(from, to, name)) {
+            if (codec.header() != null) {
+                bytes += writeLine(channel, buffer, codec.header());
+            }
+            Iterator<Expense> cursor = expenses.iterator();
+            while (cursor.hasNext()) {
+                bytes += writeLine(channel, buffer, codec.encode(cursor.next()));
+                documents++;
+            }
+            drain(channel, buffer);
+        }
+        return new ExportReport(documents, bytes, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // Append one line to the buffer, draining it to the channel whenever it fills up
+    private static long writeLine(FileChannel channel, ByteBuffer buffer, String line) throws IOException {
+        byte[] encoded = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < encoded.length) {
+            if (!buffer.hasRemaining()) {
+                drain(channel, buffer);
+            }
+            int length = Math.min(buffer.remaining(), encoded.length - offset);
+            buffer.put(encoded, offset, length);
+            offset += length;
+        }
+        return encoded.length;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,19 @@
+package com.expensemanager.expensemanager.service;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+// File formats supported by the import and export pipelines
+public enum ExpenseFileFormat {
+    CSV,
+    JSONL;
+
+    // JSON Lines for .jsonl/.ndjson files, CSV for everything else
+    public static ExpenseFileFormat fromPath(Path path) {
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        return CSV;
+    }
+}
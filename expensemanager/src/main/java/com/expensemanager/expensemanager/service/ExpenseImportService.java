@@ -0,0 +1,106 @@
+package com.expensemanager.expensemanager.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.ImportReport.RowError;
+
+// Streams a CSV or JSON Lines file into the expenses collection in unordered bulk batches.
+// Only one batch is held in memory at a time, so file size is not bounded by heap.
+@Service
+public class ExpenseImportService {
+
+    // A quoted CSV field may span lines; past this many a stray quote is reported instead of swallowing the file
+    private static final int MAX_RECORD_LINES = 64;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Value("${expensemanager.import.batch-size:1000}")
+    private int batchSize;
+
+    // Rejected rows beyond this are counted but not listed in the report
+    @Value("${expensemanager.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    public ImportReport importFile(Path path) throws IOException {
+        return importFile(path, ExpenseFileFormat.fromPath(path));
+    }
+
+    public ImportReport importFile(Path path, ExpenseFileFormat format) throws IOException {
+        long start = System.nanoTime();
+        ExpenseRecordCodec codec = new ExpenseRecordCodec(format);
+        List<Expense> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        List<RowError> errors = new ArrayList<>();
+        long lineNumber = 0;
+        long rowsRead = 0;
+        long inserted = 0;
+        long rejected = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                long recordLine = lineNumber;  // Errors point at the line the record starts on
+                String next;
+                for (int lines = 1; lines < MAX_RECORD_LINES && codec.continuesOnNextLine(line)
+                        && (next = reader.readLine()) != null; lines++) {
+                    lineNumber++;
+                    line = line + "\n" + next;
+                }
+                if (line.isBlank() || (rowsRead == 0 && codec.acceptHeader(line))) {
+                    continue;
+                }
+                rowsRead++;
+                try {
+                    batch.add(codec.decode(line));
+                    batchLines.add(recordLine);
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    addError(errors, new RowError(recordLine, e.getMessage()));
+                }
+                if (batch.size() >= batchSize) {
+                    long failed = flush(batch, batchLines, errors);
+                    inserted += batch.size() - failed;
+                    rejected += failed;
+                    batch.clear();
+                    batchLines.clear();
+                }
+            }
+        }
+        long failed = flush(batch, batchLines, errors);
+        inserted += batch.size() - failed;
+        rejected += failed;
+
+        return new ImportReport(rowsRead, inserted, rejected, errors, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // Write one batch and record any per-document server errors against their source lines
+    private long flush(List<Expense> batch, List<Long> batchLines, List<RowError> errors) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, String> failures = expenseService.addExpenses(batch);
+        failures.forEach((index, message) -> addError(errors, new RowError(batchLines.get(index), message)));
+        return failures.size();
+    }
+
+    private void addError(List<RowError> errors, RowError error) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        }
+    }
+}
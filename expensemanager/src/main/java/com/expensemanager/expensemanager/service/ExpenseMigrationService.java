@@ -0,0 +1,130 @@
+package com.expensemanager.expensemanager.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.NameTokens;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+import com.mongodb.client.model.Filters;
+
+// One-off, idempotent data migrations run with the "migrate" command; each only touches documents still in the old shape
+@Service
+@ConditionalOnProperty(name = "expensemanager.storage", havingValue = "mongo", matchIfMissing = true)
+public class ExpenseMigrationService {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    // Indexes declared before owner-led ones replaced them; they would only cost write time and memory now
+    private static final List<String> SUPERSEDED_INDEXES = List.of("date_id", "name", "nameLower", "nameGrams");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    // Runs every migration in order and returns the number of documents each one changed
+    public List<String> migrateAll() {
+        long amounts = migrateAmountsToMinorUnits();
+        long names = backfillNameSearchFields();
+        long owners = assignOwner(TenantContext.current());
+        int indexes = ensureIndexes();
+        int dropped = dropSupersededIndexes();
+        expenseService.rebuildSummaryIndex();
+        return List.of(
+                String.format("amount -> int64 sen: %d documents", amounts),
+                String.format("name search fields: %d documents", names),
+                String.format("owner -> %s: %d documents", TenantContext.current(), owners),
+                String.format("indexes ensured: %d, superseded indexes dropped: %d", indexes, dropped));
+    }
+
+    // Legacy documents store amount as a double in ringgit; convert them server-side to an int64 number of sen
+    public long migrateAmountsToMinorUnits() {
+        Bson legacy = Filters.or(Filters.type("amount", BsonType.DOUBLE), Filters.type("amount", BsonType.DECIMAL128));
+        Document toMinorUnits = new Document("$set", new Document("amount",
+                new Document("$toLong", new Document("$round", List.of(
+                        new Document("$multiply", List.of("$amount", 100)), 0)))));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Expense.class))
+                .updateMany(legacy, List.of(toMinorUnits))
+                .getModifiedCount();
+    }
+
+    // Documents written before the indexed name search lack nameLower/nameGrams; derive them in batched bulk updates
+    public long backfillNameSearchFields() {
+        Query missing = new Query(Criteria.where("nameLower").exists(false));
+        missing.fields().include("name");
+        missing.cursorBatchSize(BACKFILL_BATCH_SIZE);
+
+        long updated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class);
+        int pending = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(missing, Document.class,
+                mongoTemplate.getCollectionName(Expense.class))) {
+            Iterator<Document> cursor = documents.iterator();
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                String nameLower = NameTokens.normalize(document.getString("name"));
+                bulk.updateOne(new Query(Criteria.where("_id").is(document.get("_id"))),
+                        new Update().set("nameLower", nameLower).set("nameGrams", NameTokens.trigrams(nameLower)));
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+
+    // Documents written before multi-tenancy have no owner and are invisible to every query; give them one.
+    // The migrate command passes its session owner (expensemanager.tenant.owner, "default" unless set).
+    public long assignOwner(String owner) {
+        return mongoTemplate.updateMulti(new Query(Criteria.where("owner").exists(false)),
+                new Update().set("owner", TenantContext.validate(owner)), Expense.class).getModifiedCount();
+    }
+
+    // Create every index declared by annotations on Expense; existing indexes are left untouched
+    public int ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Expense.class);
+        int count = 0;
+        for (IndexDefinition index : IndexResolver.create(mongoTemplate.getConverter().getMappingContext()).resolveIndexFor(Expense.class)) {
+            indexOps.ensureIndex(index);
+            count++;
+        }
+        return count;
+    }
+
+    public int dropSupersededIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Expense.class);
+        int count = 0;
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if (SUPERSEDED_INDEXES.contains(index.getName())) {
+                indexOps.dropIndex(index.getName());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,153 @@
+package com.expensemanager.expensemanager.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Line-oriented CSV and JSON Lines encoding of expenses, shared by the import and export pipelines.
+// CSV records are name,amount,date with RFC 4180 quoting; a header row may reorder the columns. A quoted name may
+// contain line breaks, so a CSV record can span lines (see continuesOnNextLine).
+public final class ExpenseRecordCodec {
+
+    // Big decimals keep JSON amounts such as 0.10 exact on their way to Money.parse
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private static final List<String> DEFAULT_COLUMNS = List.of("name", "amount", "date");
+
+    private final ExpenseFileFormat format;
+    private List<String> columns = DEFAULT_COLUMNS;
+
+    public ExpenseRecordCodec(ExpenseFileFormat format) {
+        this.format = format;
+    }
+
+    // True when the line is a CSV header; the codec then reads later rows in the header's column order
+    public boolean acceptHeader(String line) {
+        if (format != ExpenseFileFormat.CSV) {
+            return false;
+        }
+        List<String> fields = splitCsv(line);
+        List<String> header = new ArrayList<>();
+        for (String field : fields) {
+            header.add(field.trim().toLowerCase(Locale.ROOT));
+        }
+        if (!header.containsAll(DEFAULT_COLUMNS)) {
+            return false;
+        }
+        columns = header;
+        return true;
+    }
+
+    // True when a CSV record read so far ends inside a quoted field, so the next line belongs to the same record
+    public boolean continuesOnNextLine(String record) {
+        return format == ExpenseFileFormat.CSV && record.chars().filter(c -> c == '"').count() % 2 == 1;
+    }
+
+    // Parse and validate one record, throwing IllegalArgumentException with a readable reason
+    public Expense decode(String line) {
+        String name;
+        String amount;
+        String date;
+        if (format == ExpenseFileFormat.JSONL) {
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+            name = node.path("name").asText(null);
+            amount = node.path("amount").asText(null);
+            date = node.path("date").asText(null);
+        } else {
+            List<String> fields = splitCsv(line);
+            if (fields.size() < columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + fields.size());
+            }
+            name = fields.get(columns.indexOf("name"));
+            amount = fields.get(columns.indexOf("amount"));
+            date = fields.get(columns.indexOf("date"));
+        }
+        return toExpense(name, amount, date);
+    }
+
+    // One record without its line terminator; JSON Lines records also carry the expense id
+    public String encode(Expense expense) {
+        if (format == ExpenseFileFormat.JSONL) {
+            return MAPPER.createObjectNode()
+                    .put("id", expense.getId())
+                    .put("name", expense.getName())
+                    .put("amount", Money.toDecimal(expense.getAmount()))
+                    .put("date", expense.getDate().toString())
+                    .toString();
+        }
+        return quoteCsv(expense.getName()) + "," + Money.format(expense.getAmount()) + "," + expense.getDate();
+    }
+
+    // Header row written before the first CSV record, null for formats without one
+    public String header() {
+        return format == ExpenseFileFormat.CSV ? String.join(",", DEFAULT_COLUMNS) : null;
+    }
+
+    private static Expense toExpense(String name, String amountText, String dateText) {
+        if (dateText == null || dateText.isBlank()) {
+            throw new IllegalArgumentException("Missing date");
+        }
+        long amount = Money.parse(amountText);
+        LocalDate date;
+        try {
+            date = LocalDate.parse(dateText.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date (expected YYYY-MM-DD): " + dateText);
+        }
+        ExpenseService.validateExpense(name, amount);
+        return new Expense(name.trim(), amount, date);
+    }
+
+    // Split one CSV record; quoted fields may contain commas, doubled quotes and line breaks
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
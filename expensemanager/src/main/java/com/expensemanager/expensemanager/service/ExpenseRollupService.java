@@ -0,0 +1,185 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.MonthlyRollup;
+import com.expensemanager.expensemanager.repository.ExpenseRepository;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Moves the expenses of every month that ended more than expensemanager.rollup.horizon-months ago into the archive
+// collection and keeps one MonthlyRollup per owner and month in their place, so history-wide totals and analysis read
+// a few hundred rollups instead of every expense ever recorded. Runs on expensemanager.rollup.cron and with the
+// "rollup" command.
+//
+// Archived months are treated as closed: their expenses can no longer be listed, searched, edited or deleted.
+// Expenses added to a month after it was rolled up stay live, are combined with its rollup, and are archived by the
+// next run. Each month is copied to the archive, rolled up from the archive, then deleted from the live collection
+// in bulk writes that remove each expense only at the version that was copied: an expense edited or deleted while
+// the job runs keeps that change, loses its archived copy and is rolled up again (edited ones are archived by the
+// next run).
+// A run that stops in between counts the month twice until the next run repeats those steps, which is safe because
+// every step can be repeated.
+@Service
+@ConditionalOnProperty(name = "expensemanager.storage", havingValue = "mongo", matchIfMissing = true)
+public class ExpenseRollupService {
+
+    public static final String ARCHIVE_COLLECTION = "expenses_archive";
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1, 1, 1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    // Whole months younger than this stay live
+    @Value("${expensemanager.rollup.horizon-months:24}")
+    private int horizonMonths;
+
+    @Value("${expensemanager.rollup.batch-size:1000}")
+    private int batchSize;
+
+    // Disabled unless expensemanager.rollup.cron is set ("-" turns the trigger off)
+    @Scheduled(cron = "${expensemanager.rollup.cron:-}")
+    public void scheduledRollup() {
+        rollUpAll().forEach(line -> log.info("Rollup: {}", line));
+    }
+
+    // Rolls up every owner's months before the horizon and returns one line per owner that had any
+    public List<String> rollUpAll() {
+        LocalDate cutoff = YearMonth.now().minusMonths(horizonMonths).atDay(1);
+        mongoTemplate.indexOps(ARCHIVE_COLLECTION)
+                .ensureIndex(new Index().on("owner", Sort.Direction.ASC).on("date", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC).named("owner_date_id"));
+
+        // A distinct on owner alone is answered from the owner-led indexes, one key per owner; each owner's months
+        // before the cutoff then come from a date range scan within that owner's part of (owner, date, _id)
+        List<String> owners = mongoTemplate.findDistinct(new Query(), "owner", Expense.class, String.class);
+        List<String> report = new ArrayList<>();
+        for (String owner : owners) {
+            SortedSet<YearMonth> months = monthsBefore(owner, cutoff);
+            if (months.isEmpty()) {
+                continue;
+            }
+            long archived = TenantContext.callAs(owner, () -> rollUp(owner, months));
+            report.add(String.format("%s: %d expenses before %s archived", owner, archived, cutoff));
+        }
+        return report;
+    }
+
+    private SortedSet<YearMonth> monthsBefore(String owner, LocalDate cutoff) {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        expenseRepository.findDailySummariesBetween(owner, EARLIEST_DATE, cutoff.minusDays(1))
+                .forEach(day -> months.add(YearMonth.from(day.getDate())));
+        return months;
+    }
+
+    // Archives the owner's given months and returns how many expenses were moved
+    private long rollUp(String owner, SortedSet<YearMonth> months) {
+        long archived = 0;
+        for (YearMonth month : months) {
+            archived += rollUpMonth(owner, month);
+        }
+        // Totals are unchanged, but cached days of this instance still list the archived expenses
+        expenseService.rebuildSummaryIndex();
+        return archived;
+    }
+
+    private long rollUpMonth(String owner, YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.atEndOfMonth();
+
+        // 1. Copy, replacing copies left by an interrupted run, and note the version of every copy
+        Map<String, Long> versions = new HashMap<>();
+        BulkOperations copy = mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class, ARCHIVE_COLLECTION);
+        try (Stream<Expense> expenses = expenseRepository.streamExpenses(owner, from, to, null)) {
+            for (Expense expense : (Iterable<Expense>) expenses::iterator) {
+                copy.replaceOne(new Query(Criteria.where("_id").is(expense.getId())), expense,
+                        FindAndReplaceOptions.options().upsert());
+                versions.put(expense.getId(), expense.getVersion());
+                if (versions.size() % batchSize == 0) {
+                    copy.execute();
+                    copy = mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class, ARCHIVE_COLLECTION);
+                }
+            }
+        }
+        if (versions.size() % batchSize != 0) {
+            copy.execute();
+        }
+
+        // 2. Roll up everything archived for the month, including expenses archived by earlier runs
+        rollUpArchive(owner, from, to);
+
+        // 3. Only now remove the live copies, a bulk write per batch that removes each only if it is still the version
+        // that was archived, so expenses added, edited or deleted meanwhile are not lost
+        List<String> ids = new ArrayList<>(versions.keySet());
+        Set<String> removed = new HashSet<>();
+        for (int start = 0; start < ids.size(); start += batchSize) {
+            Map<String, Long> batch = new HashMap<>();
+            ids.subList(start, Math.min(start + batchSize, ids.size())).forEach(id -> batch.put(id, versions.get(id)));
+            removed.addAll(expenseRepository.deleteAllAtVersions(owner, batch));
+        }
+        List<String> changed = ids.stream().filter(id -> !removed.contains(id)).toList();
+
+        // 4. Expenses changed since they were copied keep their live state: edited ones stay live until the next run
+        // archives them as they are then, and deleted ones are gone. Drop their archived copies and roll up again.
+        if (!changed.isEmpty()) {
+            for (int start = 0; start < changed.size(); start += batchSize) {
+                List<String> batch = changed.subList(start, Math.min(start + batchSize, changed.size()));
+                mongoTemplate.remove(new Query(Criteria.where("owner").is(owner).and("_id").in(batch)), ARCHIVE_COLLECTION);
+            }
+            rollUpArchive(owner, from, to);
+        }
+        return versions.size() - changed.size();
+    }
+
+    private void rollUpArchive(String owner, LocalDate from, LocalDate to) {
+        Criteria inMonth = Criteria.where("owner").is(owner).and("date").gte(from).lte(to);
+        List<DailySummary> days = mongoTemplate.aggregate(newAggregation(Expense.class,
+                        match(inMonth),
+                        group("date").sum("amount").as("total").count().as("count")
+                                .min("amount").as("min").max("amount").as("max"),
+                        sort(Sort.Direction.ASC, "_id")),
+                ARCHIVE_COLLECTION, DailySummary.class).getMappedResults();
+        mongoTemplate.save(new MonthlyRollup(owner, from, days));
+    }
+}
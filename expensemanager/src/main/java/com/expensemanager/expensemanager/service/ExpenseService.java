@@ -1,73 +1,476 @@
 package com.expensemanager.expensemanager.service;
 
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.expensemanager.expensemanager.model.DailySummary;
 import com.expensemanager.expensemanager.model.Expense;
-import com.expensemanager.expensemanager.repository.ExpenseRepository;
+import com.expensemanager.expensemanager.model.Money;
+import com.expensemanager.expensemanager.model.NameTokens;
+import com.expensemanager.expensemanager.repository.ExpenseEdit;
+import com.expensemanager.expensemanager.repository.ExpensePage;
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+import com.expensemanager.expensemanager.service.DailySummaryIndex.DayTotal;
+import com.expensemanager.expensemanager.tenant.TenantContext;
 
+import io.micrometer.core.annotation.Timed;
+
+// Every public operation is timed as expensemanager.service{method=...} (see MetricsConfiguration).
+// Operations act for the owner in TenantContext; each owner has its own summary index and cache entries.
 @Service
+@Timed(value = "expensemanager.service", histogram = true)
 public class ExpenseService {
 
+    private static final Logger log = LoggerFactory.getLogger(ExpenseService.class);
+
+    // Open-ended range bounds that still convert to a BSON date (LocalDate.MIN/MAX do not)
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    // Order of keyset pages (see ExpensePage)
+    private static final Comparator<Expense> PAGE_ORDER = Comparator.comparing(Expense::getDate)
+            .thenComparing(Expense::getId);
+
+    @Autowired
+    private ExpenseStore expenseStore;
+
     @Autowired
-    private ExpenseRepository expenseRepository;
+    private ExpenseCache expenseCache;
+
+    // When enabled, every write re-checks the touched date against the collection
+    @Value("${expensemanager.summary-index.check:false}")
+    private boolean checkIndexOnWrite;
+
+    // Attempts modifyExpense makes before reporting a conflict to the caller
+    @Value("${expensemanager.optimistic.max-attempts:5}")
+    private int maxAttempts;
+
+    // One index per owner that has been read or written since startup, each loaded on first read
+    private final Map<String, DailySummaryIndex> summaryIndexes = new ConcurrentHashMap<>();
+
+    private ExpenseWriteBehind writeBehind;
+
+    // Only with expensemanager.write-behind.enabled: single adds are then acknowledged before reaching the store
+    @Autowired(required = false)
+    void setWriteBehind(ExpenseWriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+        writeBehind.onFlushed(batch -> batch.forEach(expense -> {
+            // The expense now also shows up in store-backed reads: drop cached pages and move the date's version on
+            // Runs on the flusher thread, so the owner comes from the expense rather than TenantContext
+            indexOf(expense.getOwner()).adjust(expense.getDate(), 0, 0);
+            expenseCache.invalidate(expense.getOwner(), expense.getDate());
+        }));
+        // addExpense counted these in the index when they were acknowledged, but they never reached the store
+        writeBehind.onRejected(rejected -> rejected.forEach(expense ->
+                indexOf(expense.getOwner()).remove(expense.getDate(), expense.getAmount())));
+    }
 
     public List<Expense> getExpensesForToday() {
-        return expenseRepository.findByDate(LocalDate.now());
+        return getExpensesByDate(LocalDate.now());
     }
 
+    // Served from the cache after the first query, plus any adds still waiting in the write-behind buffer;
+    // the returned list is unmodifiable
     public List<Expense> getExpensesByDate(LocalDate date) {
-        return expenseRepository.findByDate(date);
+        if (writeBehind == null) {
+            return expenseCache.day(TenantContext.current(), date, expenseStore::findByDate);
+        }
+        // Pending first: an expense flushed in between is then already in the (invalidated, reloaded) stored list
+        List<Expense> pending = writeBehind.pending(TenantContext.current(), date);
+        List<Expense> stored = expenseCache.day(TenantContext.current(), date, expenseStore::findByDate);
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        Map<String, Expense> merged = new LinkedHashMap<>();
+        stored.forEach(expense -> merged.put(expense.getId(), expense));
+        pending.forEach(expense -> merged.putIfAbsent(expense.getId(), expense));
+        return List.copyOf(merged.values());
     }
 
+    // Dates in chronological order, served from the in-memory summary index
     public List<LocalDate> getDistinctDates() {
-        List<Date> distinctDates = expenseRepository.findDistinctDates();
-        return distinctDates.stream()
-                .map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate())
-                .collect(Collectors.toList());
+        return summaryIndex().dates();
+    }
+
+    // Per-date running totals and counts, oldest first, served from the in-memory summary index
+    public List<DayTotal> getDailyTotals() {
+        return summaryIndex().days();
+    }
+
+    public Optional<DayTotal> getDailyTotal(LocalDate date) {
+        return summaryIndex().get(date);
+    }
+
+    // Version tags for HTTP ETags and analytics snapshots. They change whenever this instance writes any date / the
+    // given date of the current owner, and with every cache expiry period, because writes by other instances or the
+    // CLI reach this instance's cache only when its entries expire; a tag thus outlives such a write by at most about
+    // two expiry periods. They include the owner so two owners' tags never collide.
+    public String getDataVersion() {
+        return TenantContext.current() + "-" + summaryIndex().version() + "-" + expenseCache.expiryPeriod();
+    }
+
+    public String getDataVersion(LocalDate date) {
+        return TenantContext.current() + "-" + summaryIndex().version(date) + "-" + expenseCache.expiryPeriod();
+    }
+
+    public Optional<DayTotal> getMostExpensiveDay() {
+        return summaryIndex().maxDay();
+    }
+
+    public Optional<DayTotal> getLeastExpensiveDay() {
+        return summaryIndex().minDay();
+    }
+
+    // Keyset-paginated expenses in [from, to], optionally filtered by name; pass the previous page's cursor to continue
+    // Pages of a single day without a name filter (how the CLI walks a date) are cached. Adds still waiting in the
+    // write-behind buffer are merged in, as in getExpensesByDate.
+    public ExpensePage getExpensesInRange(LocalDate from, LocalDate to, String name, String cursor, int size) {
+        // Pending first: an expense flushed in between is then already in the (invalidated, reloaded) stored page
+        List<Expense> pending = writeBehind == null ? List.of() : pendingInRange(from, to, name, cursor);
+        ExpensePage stored;
+        if (from != null && from.equals(to) && name == null) {
+            stored = expenseCache.dayPage(TenantContext.current(), from, cursor, size,
+                    () -> expenseStore.findPage(from, to, null, cursor, size));
+        } else {
+            stored = expenseStore.findPage(from, to, name, cursor, size);
+        }
+        return pending.isEmpty() ? stored : withPending(stored, pending, size);
+    }
+
+    // Pending adds that belong after the cursor in a listing of [from, to] filtered by name, with the store's semantics
+    private List<Expense> pendingInRange(LocalDate from, LocalDate to, String name, String cursor) {
+        ExpensePage.Cursor after = cursor != null ? ExpensePage.parseCursor(cursor) : null;
+        String nameLower = name == null || name.isEmpty() ? null : NameTokens.normalize(name);
+        return writeBehind.pending(TenantContext.current(), from, to).stream()
+                .filter(expense -> nameLower == null || expense.getNameLower().contains(nameLower))
+                .filter(expense -> after == null || expense.getDate().isAfter(after.date())
+                        || expense.getDate().equals(after.date()) && expense.getId().compareTo(after.id()) > 0)
+                .toList();
+    }
+
+    // Pending expenses past the last expense of a stored page that has a next page belong to a later page
+    private static ExpensePage withPending(ExpensePage stored, List<Expense> pending, int size) {
+        Expense last = stored.hasNext() ? stored.expenses().get(stored.expenses().size() - 1) : null;
+        Map<String, Expense> merged = new LinkedHashMap<>();
+        stored.expenses().forEach(expense -> merged.put(expense.getId(), expense));
+        pending.stream()
+                .filter(expense -> last == null || PAGE_ORDER.compare(expense, last) < 0)
+                .forEach(expense -> merged.putIfAbsent(expense.getId(), expense));
+        List<Expense> expenses = new ArrayList<>(merged.values());
+        expenses.sort(PAGE_ORDER);
+        if (expenses.size() <= size) {
+            return new ExpensePage(List.copyOf(expenses), stored.nextCursor());
+        }
+        List<Expense> page = List.copyOf(expenses.subList(0, size));
+        return new ExpensePage(page, ExpensePage.cursorAfter(page.get(size - 1)));
+    }
+
+    // Per-date totals for every date, oldest first, computed in a single aggregation
+    public List<DailySummary> getDailySummaries() {
+        return expenseStore.findDailySummaries();
+    }
+
+    // Per-date totals for dates within [from, to], oldest first; a null bound is open-ended
+    public List<DailySummary> getDailySummaries(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return expenseStore.findDailySummaries();
+        }
+        return expenseStore.findDailySummariesBetween(from != null ? from : EARLIEST_DATE, to != null ? to : LATEST_DATE);
+    }
+
+    // Exact grand total in sen
+    public long getGrandTotal() {
+        return summaryIndex().grandTotal();
     }
 
     public List<Expense> getExpensesForDate(LocalDate date) {
-        return expenseRepository.findByDate(date);
+        return getExpensesByDate(date);
     }
 
-    public Expense addExpense(String name, double amount, LocalDate date) {
-        Expense expense = new Expense(name, amount, date);
-        return expenseRepository.save(expense);
+    // Hit/miss/eviction counters of the per-day caches, by cache name
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        return expenseCache.statistics();
     }
 
-    public Optional<Expense> deleteExpense(String expenseId) {
-        Optional<Expense> expense = expenseRepository.findById(expenseId);
-        expense.ifPresent(expenseRepository::delete);
+    // Same rules the CLI prompts enforce: a non-empty name and a positive amount
+    public static void validateExpense(String name, long amount) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expense name must not be empty");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    public Expense addExpense(String name, long amount, LocalDate date) {
+        validateExpense(name, amount);
+        if (writeBehind != null) {
+            // Counted in the index right away; the store and its cached pages catch up when the batch is flushed
+            return ownIndex().write(() -> {
+                Expense expense = writeBehind.add(new Expense(name, amount, date));
+                ownIndex().add(date, amount);
+                return expense;
+            });
+        }
+        Expense expense = ownIndex().write(() -> {
+            Expense saved = expenseStore.save(new Expense(name, amount, date));
+            ownIndex().add(date, amount);
+            return saved;
+        });
+        invalidate(date);
+        checkIndex(date);
         return expense;
     }
 
-    //delete all expenses for a specific date
-    public void deleteAllExpensesByDate(LocalDate date) {
-        List<Expense> expenses = expenseRepository.findByDate(date);
-        expenseRepository.deleteAll(expenses);
+    // Insert a batch of already validated expenses in one unordered bulk write.
+    // Returns the positions within the batch that failed, mapped to the server's error message.
+    public Map<Integer, String> addExpenses(List<Expense> expenses) {
+        return ownIndex().write(() -> {
+            Map<Integer, String> failures = expenseStore.insertUnordered(expenses);
+            for (int i = 0; i < expenses.size(); i++) {
+                if (!failures.containsKey(i)) {
+                    ownIndex().add(expenses.get(i).getDate(), expenses.get(i).getAmount());
+                    invalidate(expenses.get(i).getDate());
+                }
+            }
+            return failures;
+        });
     }
 
-    public Optional<Expense> editExpense(String expenseId, String name, double amount) {
-        Optional<Expense> existingExpense = expenseRepository.findById(expenseId);
-        if (existingExpense.isPresent()) {
-            Expense expense = existingExpense.get();
-            expense.setName(name);
-            expense.setAmount(amount);
-            return Optional.of(expenseRepository.save(expense));
+    // One findAndModify: removes the expense and returns it, so two concurrent deletes cannot both count it
+    public Optional<Expense> deleteExpense(String expenseId) {
+        flushWriteBehind();
+        return delete(expenseId, null);
+    }
+
+    // Deletes only if the expense is still at the version the caller last read, so a delete decided on stale
+    // values (another instance or user edited it meanwhile) is reported as a conflict instead of applied
+    public ExpenseWriteResult deleteExpense(String expenseId, long expectedVersion) {
+        flushWriteBehind();
+        return delete(expenseId, expectedVersion).map(ExpenseWriteResult::applied).orElseGet(() -> rejected(expenseId));
+    }
+
+    // Delete many expenses by id in one round trip; returns the expenses that were removed
+    public List<Expense> deleteExpenses(List<String> expenseIds) {
+        flushWriteBehind();
+        return ownIndex().write(() -> {
+            List<Expense> deleted = expenseStore.deleteAllByIdIn(expenseIds);
+            deleted.forEach(existing -> {
+                ownIndex().remove(existing.getDate(), existing.getAmount());
+                invalidate(existing.getDate());
+            });
+            return deleted;
+        });
+    }
+
+    // Delete all expenses for a specific date with a single deleteMany; returns how many were removed
+    public long deleteAllExpensesByDate(LocalDate date) {
+        flushWriteBehind();
+        long deleted = ownIndex().write(() -> {
+            long removed = expenseStore.deleteByDate(date);
+            ownIndex().removeDate(date);
+            // Archived expenses of a rolled-up month are not deleted and still count
+            expenseStore.findDailySummariesBetween(date, date)
+                    .forEach(archived -> ownIndex().adjust(date, archived.getTotal(), archived.getCount()));
+            return removed;
+        });
+        invalidate(date);
+        checkIndex(date);
+        return deleted;
+    }
+
+    // One findAndModify that $sets only name and amount; the previous amount it returns gives the index delta.
+    // Last writer wins; use the expectedVersion overload when the new values were derived from a read.
+    public Optional<Expense> editExpense(String expenseId, String name, long amount) {
+        validateExpense(name, amount);
+        flushWriteBehind();
+        return edit(expenseId, null, name, amount);
+    }
+
+    // Compare-and-set edit: applied only if the expense is still at expectedVersion
+    public ExpenseWriteResult editExpense(String expenseId, long expectedVersion, String name, long amount) {
+        validateExpense(name, amount);
+        flushWriteBehind();
+        return edit(expenseId, expectedVersion, name, amount).map(ExpenseWriteResult::applied).orElseGet(() -> rejected(expenseId));
+    }
+
+    // Read-modify-write with optimistic retry: change gets the current expense and sets its new name and amount,
+    // which are written only if nobody wrote in between. On a conflict it is re-applied to a fresh read, up to
+    // expensemanager.optimistic.max-attempts times; after that the conflict is returned with the current expense.
+    public ExpenseWriteResult modifyExpense(String expenseId, Consumer<Expense> change) {
+        flushWriteBehind();
+        ExpenseWriteResult result = ExpenseWriteResult.notFound();
+        Optional<Expense> current = expenseStore.findById(expenseId);
+        for (int attempt = 0; attempt < maxAttempts && current.isPresent(); attempt++) {
+            Expense expense = current.get();
+            long version = expense.getVersion();
+            change.accept(expense);
+            validateExpense(expense.getName(), expense.getAmount());
+            Optional<Expense> edited = edit(expenseId, version, expense.getName(), expense.getAmount());
+            if (edited.isPresent()) {
+                return ExpenseWriteResult.applied(edited.get());
+            }
+            current = expenseStore.findById(expenseId);
+            result = current.map(ExpenseWriteResult::conflict).orElseGet(ExpenseWriteResult::notFound);
+        }
+        return result;
+    }
+
+    // Apply many edits in one bulk write; returns the edited expenses (unknown ids and expenses changed by another
+    // writer while the bulk write ran are skipped)
+    public List<Expense> editExpenses(List<ExpenseEdit> edits) {
+        edits.forEach(edit -> validateExpense(edit.name(), edit.amount()));
+        flushWriteBehind();
+        Map<String, ExpenseEdit> byId = new HashMap<>();
+        edits.forEach(edit -> byId.put(edit.id(), edit));
+        List<Expense> edited = ownIndex().write(() -> {
+            List<Expense> updated = expenseStore.updateAll(new ArrayList<>(byId.values()));
+            updated.forEach(expense -> ownIndex().adjust(expense.getDate(), byId.get(expense.getId()).amount() - expense.getAmount(), 0));
+            return updated;
+        });
+        for (Expense expense : edited) {
+            ExpenseEdit edit = byId.get(expense.getId());
+            invalidate(expense.getDate());
+            expense.setName(edit.name());
+            expense.setAmount(edit.amount());
+            expense.setVersion(expense.getVersion() + 1);
         }
-        return Optional.empty();
+        return edited;
+    }
+
+    private Optional<Expense> delete(String expenseId, Long expectedVersion) {
+        Optional<Expense> expense = ownIndex().write(() -> {
+            Optional<Expense> deleted = expenseStore.findAndDeleteById(expenseId, expectedVersion);
+            deleted.ifPresent(existing -> ownIndex().remove(existing.getDate(), existing.getAmount()));
+            return deleted;
+        });
+        expense.ifPresent(existing -> {
+            invalidate(existing.getDate());
+            checkIndex(existing.getDate());
+        });
+        return expense;
+    }
+
+    private Optional<Expense> edit(String expenseId, Long expectedVersion, String name, long amount) {
+        Optional<Expense> edited = ownIndex().write(() -> {
+            Optional<Expense> updated = expenseStore.updateNameAndAmount(expenseId, expectedVersion, name, amount);
+            updated.ifPresent(previous -> ownIndex().adjust(previous.getDate(), amount - previous.getAmount(), 0));
+            return updated;
+        });
+        return edited.map(previous -> {
+            invalidate(previous.getDate());
+            checkIndex(previous.getDate());
+            previous.setName(name);
+            previous.setAmount(amount);
+            previous.setVersion(previous.getVersion() + 1);
+            return previous;
+        });
+    }
+
+    // A conditional write matched nothing: either the expense is gone or its version moved on
+    private ExpenseWriteResult rejected(String expenseId) {
+        return expenseStore.findById(expenseId).map(ExpenseWriteResult::conflict).orElseGet(ExpenseWriteResult::notFound);
     }
 
     public List<Expense> getExpensesByName(String name) {
-        return expenseRepository.findByNameContainingIgnoreCase(name);
+        return expenseStore.findByNameContainingIgnoreCase(name);
+    }
+
+    // Ranked, paged name search backed by the nameLower/nameGrams indexes (page is zero-based)
+    public List<Expense> searchExpensesByName(String query, int page, int size) {
+        return expenseStore.searchByName(query, page, size);
+    }
+
+    // Compare every entry of the summary index against a fresh aggregation; empty when consistent
+    public List<String> verifySummaryIndex() {
+        flushWriteBehind();
+        Map<LocalDate, DailySummary> actual = new TreeMap<>();
+        expenseStore.findDailySummaries().forEach(summary -> actual.put(summary.getDate(), summary));
+
+        List<String> mismatches = new ArrayList<>();
+        for (DayTotal day : summaryIndex().days()) {
+            DailySummary summary = actual.remove(day.date());
+            if (summary == null) {
+                mismatches.add(String.format("%s: indexed (%d, %s) but has no expenses",
+                        day.date(), day.count(), Money.format(day.total())));
+            } else if (summary.getCount() != day.count() || summary.getTotal() != day.total()) {
+                mismatches.add(String.format("%s: indexed (%d, %s) but collection has (%d, %s)", day.date(), day.count(),
+                        Money.format(day.total()), summary.getCount(), Money.format(summary.getTotal())));
+            }
+        }
+        actual.values().forEach(summary -> mismatches.add(String.format("%s: collection has (%d, %s) but not indexed",
+                summary.getDate(), summary.getCount(), Money.format(summary.getTotal()))));
+        return mismatches;
+    }
+
+    // Discard the owner's in-memory index and cached days and rebuild the index from the collection
+    public void rebuildSummaryIndex() {
+        flushWriteBehind();
+        expenseCache.invalidateOwner(TenantContext.current());
+        ownIndex().load(expenseStore::findDailySummaries);
+    }
+
+    // Built once per owner from a single aggregation on first use, then maintained incrementally by the write methods;
+    // writes racing the first load are held back until it is done (see DailySummaryIndex.write)
+    private DailySummaryIndex summaryIndex() {
+        DailySummaryIndex index = ownIndex();
+        if (!index.isLoaded()) {
+            index.loadOnce(() -> {
+                flushWriteBehind();
+                return expenseStore.findDailySummaries();
+            });
+        }
+        return index;
+    }
+
+    // The current owner's index, loaded or not (writes to an unloaded index are ignored until its first load)
+    private DailySummaryIndex ownIndex() {
+        return indexOf(TenantContext.current());
+    }
+
+    private DailySummaryIndex indexOf(String owner) {
+        return summaryIndexes.computeIfAbsent(owner, key -> new DailySummaryIndex());
+    }
+
+    private void invalidate(LocalDate date) {
+        expenseCache.invalidate(TenantContext.current(), date);
+    }
+
+    // Other writes and index checks go to the store directly, so pending adds must be there first
+    private void flushWriteBehind() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    private void checkIndex(LocalDate date) {
+        if (!checkIndexOnWrite || !ownIndex().isLoaded()) {
+            return;
+        }
+        Optional<DayTotal> indexed = ownIndex().get(date);
+        List<DailySummary> actual = expenseStore.findDailySummariesBetween(date, date);
+        long actualCount = actual.isEmpty() ? 0 : actual.get(0).getCount();
+        long actualTotal = actual.isEmpty() ? 0 : actual.get(0).getTotal();
+        long indexedCount = indexed.map(DayTotal::count).orElse(0L);
+        long indexedTotal = indexed.map(DayTotal::total).orElse(0L);
+        if (actualCount != indexedCount || actualTotal != indexedTotal) {
+            log.warn("Summary index drift on {}: indexed ({}, {}) but collection has ({}, {})",
+                    date, indexedCount, indexedTotal, actualCount, actualTotal);
+        }
     }
-    
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package com.expensemanager.expensemanager.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+import com.expensemanager.expensemanager.storage.ExpenseWriteAheadLog;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Write-behind for single adds (expensemanager.write-behind.enabled): an add is acknowledged once it is in the
+// local write-ahead log, and a background thread inserts the pending expenses into the store with one unordered
+// bulk insert per flush-size batch, at least every flush-interval. Pending expenses are replayed from the log on
+// the next start if the process stops before they are flushed.
+@Component
+@ConditionalOnProperty(name = "expensemanager.write-behind.enabled", havingValue = "true")
+public class ExpenseWriteBehind implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseWriteBehind.class);
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final ExpenseStore expenseStore;
+    private final ExpenseWriteAheadLog writeAheadLog;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final int maxPending;
+    private final boolean sync;
+    private final ReentrantLock flushLock = new ReentrantLock();  // One batch in flight at a time
+    private final Thread flusher;
+
+    private record DayKey(String owner, LocalDate date) {}
+
+    // Guarded by this: pending expenses oldest first, and the same expenses by owner and date for reads
+    private final LinkedHashMap<String, Expense> pending = new LinkedHashMap<>();
+    private final Map<DayKey, Map<String, Expense>> pendingByDay = new HashMap<>();
+    private boolean closed;
+
+    private volatile Consumer<List<Expense>> flushListener = batch -> { };
+    private volatile Consumer<List<Expense>> rejectListener = rejected -> { };
+
+    public ExpenseWriteBehind(ExpenseStore expenseStore, MeterRegistry registry,
+                              @Value("${expensemanager.write-behind.path:write-behind.log}") Path path,
+                              @Value("${expensemanager.write-behind.flush-size:500}") int flushSize,
+                              @Value("${expensemanager.write-behind.flush-interval:200ms}") Duration flushInterval,
+                              @Value("${expensemanager.write-behind.max-pending:100000}") int maxPending,
+                              @Value("${expensemanager.write-behind.sync:true}") boolean sync) throws IOException {
+        this.expenseStore = expenseStore;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+        this.sync = sync;
+        writeAheadLog = ExpenseWriteAheadLog.open(path);
+        writeAheadLog.recovered().forEach(this::enqueue);
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} pending expenses from write-ahead log {}", pending.size(), path);
+        }
+        Gauge.builder("expensemanager.write-behind.pending", this, ExpenseWriteBehind::pendingCount)
+                .description("Expenses acknowledged but not yet flushed to the store")
+                .register(registry);
+        flusher = new Thread(this::flushContinuously, "expense-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Called with every flushed batch after it reached the store and before it stops being pending
+    public void onFlushed(Consumer<List<Expense>> listener) {
+        flushListener = listener;
+    }
+
+    // Called with the expenses of a batch that the store refused for good (anything but a duplicate id), before the
+    // batch goes to the flush listener; they were acknowledged, so whoever counted them must take them back
+    public void onRejected(Consumer<List<Expense>> listener) {
+        rejectListener = listener;
+    }
+
+    // Assigns the id (and the current owner, as the flush runs on another thread), appends to the write-ahead log
+    // and returns once the expense is durable (with sync) or at least safe from a process crash. Blocks while
+    // max-pending expenses are waiting to be flushed.
+    public Expense add(Expense expense) {
+        expense.setId(new ObjectId().toHexString());
+        if (expense.getOwner() == null) {
+            expense.setOwner(TenantContext.current());
+        }
+        long position;
+        synchronized (this) {
+            try {
+                while (pending.size() >= maxPending && !closed) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for write-behind capacity", e);
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-behind buffer is closed");
+            }
+            try {
+                position = writeAheadLog.append(expense);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            enqueue(expense);
+            if (pending.size() >= flushSize) {
+                notifyAll();  // A full batch is ready; do not wait for the interval
+            }
+        }
+        if (sync) {
+            writeAheadLog.sync(position);
+        }
+        return expense;
+    }
+
+    // The owner's pending expenses on the given date, for read-your-writes before they are flushed
+    public synchronized List<Expense> pending(String owner, LocalDate date) {
+        Map<String, Expense> expenses = pendingByDay.get(new DayKey(owner, date));
+        return expenses == null ? List.of() : List.copyOf(expenses.values());
+    }
+
+    // The owner's pending expenses in [from, to], oldest first; null bounds are open-ended
+    public synchronized List<Expense> pending(String owner, LocalDate from, LocalDate to) {
+        List<Expense> expenses = new ArrayList<>();
+        for (Expense expense : pending.values()) {
+            if (expense.getOwner().equals(owner)
+                    && (from == null || !expense.getDate().isBefore(from))
+                    && (to == null || !expense.getDate().isAfter(to))) {
+                expenses.add(expense);
+            }
+        }
+        return expenses;
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // Flushes on the caller's thread until everything pending when called is in the store; store failures propagate
+    public void flush() {
+        int remaining = pendingCount();
+        while (remaining > 0) {
+            int flushed = flushBatch();
+            if (flushed == 0) {
+                return;
+            }
+            remaining -= flushed;
+        }
+    }
+
+    // Inserts up to flush-size of the oldest pending expenses and returns how many left the buffer
+    int flushBatch() {
+        flushLock.lock();
+        try {
+            List<Expense> batch;
+            synchronized (this) {
+                batch = pending.values().stream().limit(flushSize).toList();
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            Map<Integer, String> failures = expenseStore.insertUnordered(batch);
+            // A duplicate _id was inserted by an earlier attempt whose flush was not yet recorded in the log
+            List<Expense> rejected = new ArrayList<>();
+            failures.forEach((index, message) -> {
+                if (!message.toLowerCase(Locale.ROOT).contains("duplicate key")) {
+                    log.error("Dropping pending expense {} rejected by the store: {}", batch.get(index).getId(), message);
+                    rejected.add(batch.get(index));
+                }
+            });
+            if (!rejected.isEmpty()) {
+                rejectListener.accept(rejected);
+            }
+            flushListener.accept(batch);
+
+            List<String> ids = new ArrayList<>(batch.size());
+            synchronized (this) {
+                for (Expense expense : batch) {
+                    ids.add(expense.getId());
+                    pending.remove(expense.getId());
+                    DayKey day = new DayKey(expense.getOwner(), expense.getDate());
+                    Map<String, Expense> byDay = pendingByDay.get(day);
+                    byDay.remove(expense.getId());
+                    if (byDay.isEmpty()) {
+                        pendingByDay.remove(day);
+                    }
+                }
+                try {
+                    writeAheadLog.markFlushed(ids, pending.values());
+                } catch (IOException e) {
+                    // Only costs a duplicate insert after a restart, which is treated as already flushed
+                    log.warn("Could not record a flushed batch in the write-ahead log", e);
+                }
+                notifyAll();  // Capacity for blocked adders
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void enqueue(Expense expense) {
+        pending.put(expense.getId(), expense);
+        pendingByDay.computeIfAbsent(new DayKey(expense.getOwner(), expense.getDate()), day -> new LinkedHashMap<>())
+                .put(expense.getId(), expense);
+    }
+
+    private void flushContinuously() {
+        long retryDelay = flushInterval.toMillis();
+        while (true) {
+            synchronized (this) {
+                try {
+                    if (!closed && pending.size() < flushSize) {
+                        wait(Math.max(1, flushInterval.toMillis()));
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                flushBatch();
+                retryDelay = flushInterval.toMillis();
+            } catch (RuntimeException e) {
+                log.warn("Write-behind flush of {} pending expenses failed; retrying in {} ms", pendingCount(), retryDelay, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY.toMillis());
+            }
+        }
+    }
+
+    // Stops the background thread and makes a last attempt to flush; whatever fails stays in the log for next time
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("{} pending expenses stay in the write-ahead log until the next start", pendingCount(), e);
+        }
+        writeAheadLog.close();
+    }
+}
@@ -0,0 +1,22 @@
+package com.expensemanager.expensemanager.service;
+
+import com.expensemanager.expensemanager.model.Expense;
+
+// Outcome of a conditional edit or delete. The expense is the edited or deleted one when APPLIED, the current
+// one (with the version to retry against) on CONFLICT, and null when NOT_FOUND.
+public record ExpenseWriteResult(Status status, Expense expense) {
+
+    public enum Status { APPLIED, CONFLICT, NOT_FOUND }
+
+    static ExpenseWriteResult applied(Expense expense) {
+        return new ExpenseWriteResult(Status.APPLIED, expense);
+    }
+
+    static ExpenseWriteResult conflict(Expense current) {
+        return new ExpenseWriteResult(Status.CONFLICT, current);
+    }
+
+    static ExpenseWriteResult notFound() {
+        return new ExpenseWriteResult(Status.NOT_FOUND, null);
+    }
+}
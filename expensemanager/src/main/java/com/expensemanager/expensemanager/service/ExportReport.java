@@ -0,0 +1,22 @@
+package com.expensemanager.expensemanager.service;
+
+import java.time.Duration;
+
+// Outcome of one export: documents and bytes written, and the resulting throughput
+public record ExportReport(long documents, long bytes, Duration elapsed) {
+
+    public double documentsPerSecond() {
+        double seconds = seconds();
+        return seconds > 0 ? documents / seconds : documents;
+    }
+
+    public double megabytesPerSecond() {
+        double seconds = seconds();
+        double megabytes = bytes / (1024.0 * 1024.0);
+        return seconds > 0 ? megabytes / seconds : megabytes;
+    }
+
+    private double seconds() {
+        return elapsed.toNanos() / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.expensemanager.expensemanager.service;
+
+import java.time.Duration;
+import java.util.List;
+
+// Outcome of one bulk import: row counts, timing and the first few rejected rows
+public record ImportReport(long rowsRead, long inserted, long rejected, List<RowError> errors, Duration elapsed) {
+
+    public record RowError(long line, String message) {}
+
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds > 0 ? rowsRead / seconds : rowsRead;
+    }
+}
@@ -0,0 +1,58 @@
+package com.expensemanager.expensemanager.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.NameTokens;
+import com.expensemanager.expensemanager.repository.ReactiveExpenseRepository;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+import reactor.core.publisher.Flux;
+
+// Streaming reads over the reactive Mongo driver; writes stay in ExpenseService so the summary index sees them.
+// The owner is read when the Flux is created, on the request thread, and baked into its query.
+@Service
+@ConditionalOnProperty(name = "expensemanager.storage", havingValue = "mongo", matchIfMissing = true)
+public class ReactiveExpenseService {
+
+    private static final Sort DATE_ORDER = Sort.by("date", "_id");
+
+    @Autowired
+    private ReactiveExpenseRepository reactiveExpenseRepository;
+
+    public Flux<Expense> streamExpensesByDate(LocalDate date) {
+        return reactiveExpenseRepository.findByOwnerAndDate(TenantContext.current(), date, DATE_ORDER);
+    }
+
+    // Null bounds are open-ended
+    public Flux<Expense> streamExpensesInRange(LocalDate from, LocalDate to) {
+        String owner = TenantContext.current();
+        if (from == null && to == null) {
+            return reactiveExpenseRepository.streamAll(owner);
+        }
+        Range<LocalDate> range = Range.of(
+                from != null ? Range.Bound.inclusive(from) : Range.Bound.unbounded(),
+                to != null ? Range.Bound.inclusive(to) : Range.Bound.unbounded());
+        return reactiveExpenseRepository.findByOwnerAndDateBetween(owner, range, DATE_ORDER);
+    }
+
+    // Same matches as ExpenseService.searchExpensesByName, in date order rather than ranked
+    public Flux<Expense> streamExpensesByName(String query) {
+        String normalized = NameTokens.normalize(query);
+        List<String> grams = NameTokens.trigrams(normalized);
+        String pattern = Pattern.quote(normalized);
+        String owner = TenantContext.current();
+        if (grams.isEmpty()) {
+            return reactiveExpenseRepository.findByNameLowerMatching(owner, pattern);
+        }
+        return reactiveExpenseRepository.findByNameGrams(owner, grams, pattern);
+    }
+}
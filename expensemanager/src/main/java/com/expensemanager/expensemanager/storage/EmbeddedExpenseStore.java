@@ -0,0 +1,541 @@
+package com.expensemanager.expensemanager.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.model.NameTokens;
+import com.expensemanager.expensemanager.repository.ExpenseEdit;
+import com.expensemanager.expensemanager.repository.ExpensePage;
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Local storage backend (expensemanager.storage=embedded): every write is appended to an ExpenseLog and the
+// in-memory index maps owner -> date -> id -> record offset, so each owner's reads only walk its own dates (see
+// TenantContext). Dates, amounts and per-date summaries come from the index;
+// names are read from the mapped file. Once superseded and deleted records outweigh live ones, a background
+// thread rewrites the live records into a fresh log and swaps it in.
+@Component
+@ConditionalOnProperty(name = "expensemanager.storage", havingValue = "embedded")
+public class EmbeddedExpenseStore implements ExpenseStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedExpenseStore.class);
+
+    private static final Comparator<Expense> SEARCH_ORDER = Comparator
+            .comparing(Expense::getDate, Comparator.reverseOrder())
+            .thenComparing(Expense::getId);
+
+    // Where an expense's latest record lives, plus what summaries need without reading it
+    private record Slot(String id, String owner, LocalDate date, long amount, long offset, int size) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Slot> byId = new HashMap<>();
+    private final Map<String, TreeMap<LocalDate, TreeMap<String, Slot>>> byOwner = new HashMap<>();
+    private final Path path;
+    private final LogGenerations generations;
+    private final long compactionMinBytes;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "expense-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    private ExpenseLog expenseLog;
+    private long liveBytes;
+    private boolean closed;
+
+    public EmbeddedExpenseStore(@Value("${expensemanager.storage.path:expenses.log}") Path path,
+                                @Value("${expensemanager.storage.segment-size:67108864}") int segmentSize,
+                                @Value("${expensemanager.storage.compaction-min-bytes:1048576}") long compactionMinBytes) throws IOException {
+        this.path = path;
+        this.compactionMinBytes = compactionMinBytes;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        generations = new LogGenerations(path);
+        expenseLog = ExpenseLog.open(generations.current(), segmentSize);
+        expenseLog.recover(record -> {
+            if (record.type() == ExpenseLog.PUT) {
+                put(new Slot(record.id(), record.owner(), record.date(), record.amount(), record.offset(), record.size()));
+            } else {
+                remove(record.id());
+            }
+        });
+        generations.deleteOthers();
+        log.info("Opened expense log {} with {} expenses ({} of {} bytes live)", generations.current(), byId.size(),
+                liveBytes, expenseLog.end());
+    }
+
+    @Override
+    public Expense save(Expense expense) {
+        return write(() -> {
+            assignOwner(expense);
+            if (expense.getId() == null) {
+                expense.setId(new ObjectId().toHexString());
+            } else if (byId.containsKey(expense.getId()) && !byId.get(expense.getId()).owner().equals(expense.getOwner())) {
+                throw new IllegalArgumentException("Duplicate key: _id " + expense.getId());  // Another owner's expense
+            }
+            append(expense);
+            return expense;
+        });
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Expense> expenses) {
+        return write(() -> {
+            Map<Integer, String> failures = new TreeMap<>();
+            for (int i = 0; i < expenses.size(); i++) {
+                Expense expense = expenses.get(i);
+                assignOwner(expense);
+                if (expense.getId() == null) {
+                    expense.setId(new ObjectId().toHexString());
+                } else if (byId.containsKey(expense.getId())) {
+                    failures.put(i, "Duplicate key: _id " + expense.getId());
+                    continue;
+                }
+                try {
+                    append(expense);
+                } catch (IllegalArgumentException e) {
+                    failures.put(i, e.getMessage());
+                }
+            }
+            return failures;
+        });
+    }
+
+    @Override
+    public Optional<Expense> findById(String id) {
+        return read(() -> Optional.ofNullable(owned(id)).map(this::load));
+    }
+
+    @Override
+    public List<Expense> findByDate(LocalDate date) {
+        return read(() -> {
+            TreeMap<String, Slot> slots = dates().get(date);
+            return slots == null ? List.of() : slots.values().stream().map(this::load).toList();
+        });
+    }
+
+    @Override
+    public List<Expense> findByNameContainingIgnoreCase(String name) {
+        String needle = name.toLowerCase(Locale.ROOT);
+        return read(() -> allSlots(dates()).map(this::load)
+                .filter(expense -> expense.getName().toLowerCase(Locale.ROOT).contains(needle))
+                .toList());
+    }
+
+    @Override
+    public List<Expense> searchByName(String query, int page, int size) {
+        String normalized = NameTokens.normalize(query);
+        List<Expense> matches = read(() -> allSlots(dates()).map(this::load)
+                .filter(expense -> expense.getNameLower().contains(normalized))
+                .toList());
+        return matches.stream()
+                .sorted(Comparator.comparingInt((Expense expense) -> rank(expense, normalized)).thenComparing(SEARCH_ORDER))
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+    }
+
+    @Override
+    public ExpensePage findPage(LocalDate from, LocalDate to, String name, String cursor, int size) {
+        ExpensePage.Cursor after = cursor != null ? ExpensePage.parseCursor(cursor) : null;
+        return read(() -> {
+            NavigableMap<LocalDate, TreeMap<String, Slot>> dates = range(from, to);
+            if (after != null) {
+                dates = dates.tailMap(after.date(), true);
+            }
+            List<Expense> expenses = new ArrayList<>(size + 1);
+            for (Map.Entry<LocalDate, TreeMap<String, Slot>> day : dates.entrySet()) {
+                Map<String, Slot> slots = after != null && day.getKey().equals(after.date())
+                        ? day.getValue().tailMap(after.id(), false)
+                        : day.getValue();
+                for (Slot slot : slots.values()) {
+                    Expense expense = load(slot);
+                    if (matchesName(expense, name)) {
+                        expenses.add(expense);
+                        if (expenses.size() > size) {
+                            List<Expense> page = expenses.subList(0, size);
+                            return new ExpensePage(page, ExpensePage.cursorAfter(page.get(size - 1)));
+                        }
+                    }
+                }
+            }
+            return new ExpensePage(expenses, null);
+        });
+    }
+
+    // A point-in-time snapshot: the slots are copied under the lock and read from the log they were written to,
+    // which stays mapped even if compaction replaces it meanwhile
+    @Override
+    public Stream<Expense> streamExpenses(LocalDate from, LocalDate to, String name) {
+        ExpenseLog source;
+        List<Slot> slots;
+        lock.readLock().lock();
+        try {
+            source = expenseLog;
+            slots = allSlots(range(from, to)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return slots.stream()
+                .map(slot -> source.read(slot.offset()).toExpense())
+                .filter(expense -> matchesName(expense, name));
+    }
+
+    // Straight from the index: the dates and amounts are in memory, so the log file is not read at all
+    @Override
+    public void scanAmounts(LocalDate from, LocalDate to, AmountSink sink) {
+        read(() -> {
+            range(from, to).forEach((date, slots) -> {
+                long epochDay = date.toEpochDay();
+                slots.values().forEach(slot -> sink.accept(epochDay, slot.amount()));
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public List<DailySummary> findDailySummaries() {
+        return read(() -> summaries(dates()));
+    }
+
+    @Override
+    public List<DailySummary> findDailySummariesBetween(LocalDate from, LocalDate to) {
+        return read(() -> summaries(range(from, to)));
+    }
+
+    @Override
+    public Optional<Expense> updateNameAndAmount(String id, Long expectedVersion, String name, long amount) {
+        return write(() -> {
+            Expense current = current(id, expectedVersion);
+            return current == null ? Optional.<Expense>empty() : Optional.of(edit(current, name, amount));
+        });
+    }
+
+    @Override
+    public List<Expense> updateAll(List<ExpenseEdit> edits) {
+        return write(() -> {
+            List<Expense> previous = new ArrayList<>();
+            for (ExpenseEdit edit : edits) {
+                Slot slot = owned(edit.id());
+                if (slot != null) {
+                    previous.add(edit(load(slot), edit.name(), edit.amount()));
+                }
+            }
+            return previous;
+        });
+    }
+
+    @Override
+    public Optional<Expense> findAndDeleteById(String id, Long expectedVersion) {
+        return write(() -> Optional.ofNullable(current(id, expectedVersion)).map(current -> delete(owned(id))));
+    }
+
+    @Override
+    public List<Expense> deleteAllByIdIn(List<String> ids) {
+        return write(() -> ids.stream().map(this::owned).filter(slot -> slot != null).map(this::delete).toList());
+    }
+
+    @Override
+    public long deleteByDate(LocalDate date) {
+        return write(() -> {
+            TreeMap<String, Slot> slots = dates().get(date);
+            if (slots == null) {
+                return 0L;
+            }
+            List<Slot> deleted = new ArrayList<>(slots.values());
+            deleted.forEach(this::delete);
+            return (long) deleted.size();
+        });
+    }
+
+    // Finishes a running compaction, then flushes and closes the log
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            expenseLog.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Compacts now on the calling thread (tests and tooling); normally triggered by the writes themselves
+    public void compact() throws IOException {
+        ExpenseLog source;
+        long copiedUpTo;
+        List<Slot> live;
+        lock.readLock().lock();
+        try {
+            source = expenseLog;
+            copiedUpTo = source.end();
+            live = new ArrayList<>(byId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Copy the live records without blocking writers; anything they append meanwhile is replayed below
+        Path target = generations.next();
+        ExpenseLog compacted = ExpenseLog.open(target, source.segmentSize());
+        compacted.recover(record -> { });
+        Map<String, Slot> moved = new HashMap<>();
+        for (Slot slot : live) {
+            moved.put(slot.id(), new Slot(slot.id(), slot.owner(), slot.date(), slot.amount(),
+                    compacted.appendCopy(source, slot.offset()), slot.size()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (closed || expenseLog != source) {
+                compacted.close();
+                Files.deleteIfExists(target);
+                return;
+            }
+            IOException[] failure = new IOException[1];
+            source.scan(copiedUpTo, source.end(), record -> {
+                try {
+                    long offset = compacted.appendCopy(source, record.offset());
+                    if (record.type() == ExpenseLog.PUT) {
+                        moved.put(record.id(), new Slot(record.id(), record.owner(), record.date(), record.amount(), offset,
+                                record.size()));
+                    } else {
+                        moved.remove(record.id());
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            compacted.force();
+            generations.switchTo(target);
+            source.close();
+            generations.deleteOthers();
+
+            long before = source.end();
+            expenseLog = compacted;
+            byId.clear();
+            byOwner.clear();
+            liveBytes = 0;
+            moved.values().forEach(this::put);
+            log.info("Compacted expense log {} into {}, from {} to {} bytes", path, target, before, compacted.end());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bytes held by superseded and deleted records (and segment padding), reclaimed by compaction
+    public long deadBytes() {
+        return read(() -> expenseLog.end() - ExpenseLog.DATA_START - liveBytes);
+    }
+
+    private interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(IoSupplier<T> action) {
+        T result;
+        long dead;
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Expense store is closed");
+            }
+            result = action.get();
+            dead = expenseLog.end() - ExpenseLog.DATA_START - liveBytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (dead >= compactionMinBytes && dead > liveBytes && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Expense log compaction failed; will retry after later writes", e);
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+        return result;
+    }
+
+    // The helpers below run with the lock held
+
+    private void append(Expense expense) throws IOException {
+        long offset = expenseLog.appendPut(expense);
+        put(new Slot(expense.getId(), expense.getOwner(), expense.getDate(), expense.getAmount(), offset,
+                (int) (expenseLog.end() - offset)));
+    }
+
+    private static void assignOwner(Expense expense) {
+        if (expense.getOwner() == null) {
+            expense.setOwner(TenantContext.current());
+        }
+    }
+
+    // The current owner's dates; other owners' expenses are invisible to every read and write
+    private NavigableMap<LocalDate, TreeMap<String, Slot>> dates() {
+        TreeMap<LocalDate, TreeMap<String, Slot>> dates = byOwner.get(TenantContext.current());
+        return dates != null ? dates : Collections.emptyNavigableMap();
+    }
+
+    // The slot of id if the current owner owns it
+    private Slot owned(String id) {
+        Slot slot = byId.get(id);
+        return slot != null && slot.owner().equals(TenantContext.current()) ? slot : null;
+    }
+
+    // The expense if the current owner has it and, unless expectedVersion is null, it is still at that version
+    private Expense current(String id, Long expectedVersion) {
+        Slot slot = owned(id);
+        if (slot == null) {
+            return null;
+        }
+        Expense expense = load(slot);
+        return expectedVersion == null || expense.getVersion() == expectedVersion ? expense : null;
+    }
+
+    private Expense edit(Expense previous, String name, long amount) throws IOException {
+        Expense edited = new Expense(name, amount, previous.getDate());
+        edited.setId(previous.getId());
+        edited.setOwner(previous.getOwner());
+        edited.setVersion(previous.getVersion() + 1);
+        append(edited);
+        return previous;
+    }
+
+    private Expense delete(Slot slot) {
+        Expense previous = load(slot);
+        try {
+            expenseLog.appendDelete(slot.id());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        remove(slot.id());
+        return previous;
+    }
+
+    private void put(Slot slot) {
+        remove(slot.id());
+        byId.put(slot.id(), slot);
+        byOwner.computeIfAbsent(slot.owner(), owner -> new TreeMap<>())
+                .computeIfAbsent(slot.date(), date -> new TreeMap<>()).put(slot.id(), slot);
+        liveBytes += slot.size();
+    }
+
+    private void remove(String id) {
+        Slot previous = byId.remove(id);
+        if (previous != null) {
+            TreeMap<LocalDate, TreeMap<String, Slot>> dates = byOwner.get(previous.owner());
+            TreeMap<String, Slot> slots = dates.get(previous.date());
+            slots.remove(id);
+            if (slots.isEmpty()) {
+                dates.remove(previous.date());
+                if (dates.isEmpty()) {
+                    byOwner.remove(previous.owner());
+                }
+            }
+            liveBytes -= previous.size();
+        }
+    }
+
+    private Expense load(Slot slot) {
+        return expenseLog.read(slot.offset()).toExpense();
+    }
+
+    private NavigableMap<LocalDate, TreeMap<String, Slot>> range(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, TreeMap<String, Slot>> dates = dates();
+        if (from == null && to == null) {
+            return dates;
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return Collections.emptyNavigableMap();
+        }
+        if (from == null) {
+            return dates.headMap(to, true);
+        }
+        return to == null ? dates.tailMap(from, true) : dates.subMap(from, true, to, true);
+    }
+
+    private static Stream<Slot> allSlots(NavigableMap<LocalDate, TreeMap<String, Slot>> dates) {
+        return dates.values().stream().flatMap(slots -> slots.values().stream());
+    }
+
+    private static List<DailySummary> summaries(NavigableMap<LocalDate, TreeMap<String, Slot>> dates) {
+        List<DailySummary> summaries = new ArrayList<>(dates.size());
+        dates.forEach((date, slots) -> {
+            long total = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (Slot slot : slots.values()) {
+                total += slot.amount();
+                min = Math.min(min, slot.amount());
+                max = Math.max(max, slot.amount());
+            }
+            summaries.add(new DailySummary(date, total, slots.size(), min, max));
+        });
+        return summaries;
+    }
+
+    private static boolean matchesName(Expense expense, String name) {
+        return name == null || name.isEmpty() || expense.getNameLower().contains(NameTokens.normalize(name));
+    }
+
+    // Same ranking as the Mongo search pipeline: exact 0, prefix 1, anywhere else 2
+    private static int rank(Expense expense, String normalized) {
+        if (expense.getNameLower().equals(normalized)) {
+            return 0;
+        }
+        return expense.getNameLower().startsWith(normalized) ? 1 : 2;
+    }
+}
@@ -0,0 +1,272 @@
+package com.expensemanager.expensemanager.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Append-only log of expense records in a memory-mapped file, split into fixed-size segments that are mapped
+// as the log grows. Layout:
+//   file header   int MAGIC | int segmentSize
+//   record        int payloadLength | int crc32c(payload) | payload
+//   payload       byte type | short idLength | id, and for PUT: long epochDay | long amount | int nameLength | name
+//                 | long version | short ownerLength | owner (records written before versioning read as version 0,
+//                 and before ownership as TenantContext.DEFAULT_OWNER)
+// A record never spans two segments; a segment's unused tail starts with a PADDING length. Recovery stops at the
+// first zero length or checksum mismatch, so a record torn by a crash is dropped and later appends overwrite it.
+// Not thread-safe for writers; reads only use absolute gets, so they may run alongside the single writer.
+final class ExpenseLog implements Closeable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    static final int HEADER_SIZE = 8;  // payloadLength + crc
+    static final long DATA_START = 8;  // After the file header
+
+    private static final int MAGIC = 0x4558504C;  // "EXPL"
+    private static final int PADDING = -1;
+    private static final int MAX_ID_LENGTH = 0xFFFF;  // Stored as an unsigned short
+    // Outside these a header is damaged or foreign, and mapping it could reserve gigabytes or fail halfway
+    static final int MIN_SEGMENT_SIZE = 4096;
+    static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    // One decoded record; date, amount, name, version and owner are only set for PUT
+    record LogRecord(long offset, int size, byte type, String id, LocalDate date, long amount, String name, long version,
+                     String owner) {
+
+        Expense toExpense() {
+            Expense expense = new Expense(name, amount, date);
+            expense.setId(id);
+            expense.setOwner(owner);
+            expense.setVersion(version);
+            return expense;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private volatile List<MappedByteBuffer> segments;  // Copy-on-write so readers never see a half-grown list
+    private long end = DATA_START;
+
+    private ExpenseLog(FileChannel channel, int segmentSize, List<MappedByteBuffer> segments) {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.segments = segments;
+    }
+
+    // Opens or creates the log; an existing file keeps the segment size it was created with. Call recover() next.
+    static ExpenseLog open(Path path, int segmentSize) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Log segment size must be between " + MIN_SEGMENT_SIZE + " and "
+                    + MAX_SEGMENT_SIZE + " bytes, got " + segmentSize);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        if (channel.size() == 0) {
+            MappedByteBuffer first = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            first.putInt(0, MAGIC);
+            first.putInt(4, segmentSize);
+            segments.add(first);
+        } else {
+            // Mapping past the end would silently grow the file, so a file too short for its header is refused first
+            long size = channel.size();
+            MappedByteBuffer header = size >= DATA_START ? channel.map(FileChannel.MapMode.READ_ONLY, 0, DATA_START) : null;
+            if (header == null || header.getInt(0) != MAGIC) {
+                channel.close();
+                throw new IOException("Not an expense log: " + path);
+            }
+            segmentSize = header.getInt(4);
+            // Every segment is mapped whole as soon as it is started, so the first one is always complete
+            if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE || segmentSize > size) {
+                channel.close();
+                throw new IOException("Corrupt expense log header in " + path + ": segment size " + segmentSize
+                        + " for a file of " + size + " bytes");
+            }
+            long count = (channel.size() + segmentSize - 1) / segmentSize;
+            for (long i = 0; i < count; i++) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, i * segmentSize, segmentSize));
+            }
+        }
+        return new ExpenseLog(channel, segmentSize, List.copyOf(segments));
+    }
+
+    int segmentSize() {
+        return segmentSize;
+    }
+
+    // Position the next record will be appended at, which is also the number of bytes in use
+    long end() {
+        return end;
+    }
+
+    // Replays every intact record in order and positions the log after the last one
+    void recover(Consumer<LogRecord> consumer) {
+        end = scan(DATA_START, Long.MAX_VALUE, consumer);
+        // Whatever follows a torn record is garbage; clear it so it cannot be mistaken for data later
+        int segmentIndex = (int) (end / segmentSize);
+        int offset = (int) (end % segmentSize);
+        if (segmentIndex < segments.size() && offset + 4 <= segmentSize && segments.get(segmentIndex).getInt(offset) != 0) {
+            segments.get(segmentIndex).put(offset, new byte[segmentSize - offset]);
+        }
+    }
+
+    // Replays the records in [from, to) and returns the position after the last one
+    long scan(long from, long to, Consumer<LogRecord> consumer) {
+        long position = from;
+        while (position < to) {
+            int segmentIndex = (int) (position / segmentSize);
+            int offset = (int) (position % segmentSize);
+            if (segmentIndex >= segments.size()) {
+                return position;
+            }
+            if (segmentSize - offset < HEADER_SIZE) {
+                position = (long) (segmentIndex + 1) * segmentSize;
+                continue;
+            }
+            MappedByteBuffer segment = segments.get(segmentIndex);
+            int length = segment.getInt(offset);
+            if (length == PADDING) {
+                position = (long) (segmentIndex + 1) * segmentSize;
+                continue;
+            }
+            if (length <= 0 || offset + HEADER_SIZE + length > segmentSize) {
+                return position;
+            }
+            byte[] payload = new byte[length];
+            segment.get(offset + HEADER_SIZE, payload);
+            if (segment.getInt(offset + 4) != checksum(payload)) {
+                return position;
+            }
+            consumer.accept(decode(position, payload));
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    long appendPut(Expense expense) throws IOException {
+        byte[] idBytes = idBytes(expense.getId());
+        byte[] nameBytes = expense.getName().getBytes(StandardCharsets.UTF_8);
+        // Like the stores, an expense without an owner belongs to the current one
+        byte[] ownerBytes = idBytes(expense.getOwner() != null ? expense.getOwner() : TenantContext.current());
+        byte[] payload = new byte[1 + 2 + idBytes.length + 8 + 8 + 4 + nameBytes.length + 8 + 2 + ownerBytes.length];
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.put(PUT).putShort((short) idBytes.length).put(idBytes)
+                .putLong(expense.getDate().toEpochDay()).putLong(expense.getAmount())
+                .putInt(nameBytes.length).put(nameBytes)
+                .putLong(expense.getVersion())
+                .putShort((short) ownerBytes.length).put(ownerBytes);
+        return append(payload);
+    }
+
+    long appendDelete(String id) throws IOException {
+        byte[] idBytes = idBytes(id);
+        byte[] payload = new byte[1 + 2 + idBytes.length];
+        ByteBuffer.wrap(payload).put(DELETE).putShort((short) idBytes.length).put(idBytes);
+        return append(payload);
+    }
+
+    // Copies one record verbatim from another log (compaction)
+    long appendCopy(ExpenseLog source, long offset) throws IOException {
+        return append(source.payload(offset));
+    }
+
+    LogRecord read(long offset) {
+        return decode(offset, payload(offset));
+    }
+
+    private byte[] payload(long offset) {
+        MappedByteBuffer segment = segments.get((int) (offset / segmentSize));
+        int position = (int) (offset % segmentSize);
+        byte[] payload = new byte[segment.getInt(position)];
+        segment.get(position + HEADER_SIZE, payload);
+        return payload;
+    }
+
+    // Flushes the mapped pages to the device; without it the data is still safe from a process crash
+    void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();  // Mappings stay readable until collected, so in-flight readers are unaffected
+    }
+
+    private long append(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize - DATA_START) {
+            throw new IllegalArgumentException("Expense record of " + recordSize + " bytes exceeds the log segment size");
+        }
+        int segmentIndex = (int) (end / segmentSize);
+        int offset = (int) (end % segmentSize);
+        if (offset + recordSize > segmentSize) {
+            if (segmentSize - offset >= 4) {
+                segments.get(segmentIndex).putInt(offset, PADDING);
+            }
+            segmentIndex++;
+            offset = 0;
+            end = (long) segmentIndex * segmentSize;
+        }
+        if (segmentIndex == segments.size()) {
+            List<MappedByteBuffer> grown = new ArrayList<>(segments);
+            grown.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segmentIndex * segmentSize, segmentSize));
+            segments = List.copyOf(grown);
+        }
+        // Length last: until it is written the record reads as the end of the log
+        MappedByteBuffer segment = segments.get(segmentIndex);
+        segment.put(offset + HEADER_SIZE, payload);
+        segment.putInt(offset + 4, checksum(payload));
+        segment.putInt(offset, payload.length);
+        long position = end;
+        end += recordSize;
+        return position;
+    }
+
+    private static LogRecord decode(long offset, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte type = buffer.get();
+        String id = string(buffer, buffer.getShort() & MAX_ID_LENGTH);
+        if (type != PUT) {
+            return new LogRecord(offset, HEADER_SIZE + payload.length, type, id, null, 0, null, 0, null);
+        }
+        LocalDate date = LocalDate.ofEpochDay(buffer.getLong());
+        long amount = buffer.getLong();
+        String name = string(buffer, buffer.getInt());
+        long version = buffer.remaining() >= 8 ? buffer.getLong() : 0;
+        String owner = buffer.remaining() >= 2 ? string(buffer, buffer.getShort() & MAX_ID_LENGTH) : TenantContext.DEFAULT_OWNER;
+        return new LogRecord(offset, HEADER_SIZE + payload.length, type, id, date, amount, name, version, owner);
+    }
+
+    private static String string(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] idBytes(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Expense id longer than " + MAX_ID_LENGTH + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,126 @@
+package com.expensemanager.expensemanager.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.expensemanager.expensemanager.model.Expense;
+
+// Write-ahead log of expenses accepted but not yet in the store, in the ExpenseLog format: a PUT per accepted
+// expense and a DELETE once it has been flushed, so replay yields exactly the pending ones. Once the log passes
+// CHECKPOINT_BYTES it is rewritten with only the pending expenses.
+// Appends are serialized; sync() forces everything appended so far in one msync, so concurrent adders waiting on
+// it share a single device flush (group commit).
+public final class ExpenseWriteAheadLog implements Closeable {
+
+    static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    static final long CHECKPOINT_BYTES = SEGMENT_SIZE / 2;
+
+    private final LogGenerations generations;
+    private final Object forceLock = new Object();  // Taken before this when both are needed
+    private final List<Expense> recovered;
+    private ExpenseLog expenseLog;
+    private volatile long durable;  // Everything before this position of expenseLog is on the device
+
+    private ExpenseWriteAheadLog(LogGenerations generations, ExpenseLog expenseLog, List<Expense> recovered) {
+        this.generations = generations;
+        this.expenseLog = expenseLog;
+        this.recovered = recovered;
+        this.durable = expenseLog.end();
+    }
+
+    public static ExpenseWriteAheadLog open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        LogGenerations generations = new LogGenerations(path);
+        ExpenseLog expenseLog = ExpenseLog.open(generations.current(), SEGMENT_SIZE);
+        Map<String, Expense> pending = new LinkedHashMap<>();
+        expenseLog.recover(record -> {
+            if (record.type() == ExpenseLog.PUT) {
+                pending.put(record.id(), record.toExpense());
+            } else {
+                pending.remove(record.id());
+            }
+        });
+        generations.deleteOthers();
+        return new ExpenseWriteAheadLog(generations, expenseLog, new ArrayList<>(pending.values()));
+    }
+
+    // Expenses that were appended but never marked flushed before the log was last closed, oldest first
+    public List<Expense> recovered() {
+        return recovered;
+    }
+
+    // Appends an expense that already has its id; it is safe from a process crash once this returns
+    public synchronized long append(Expense expense) throws IOException {
+        return expenseLog.appendPut(expense);
+    }
+
+    // Makes every record appended so far, including the one at position, survive a power loss
+    public void sync(long position) {
+        if (durable > position) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durable > position) {
+                return;  // Forced by whoever held the lock before us
+            }
+            ExpenseLog current;
+            long end;
+            synchronized (this) {
+                current = expenseLog;
+                end = current.end();
+            }
+            current.force();
+            durable = end;
+        }
+    }
+
+    // Records that the given expenses reached the store. Past CHECKPOINT_BYTES the log is replaced by one holding
+    // just the remaining pending expenses, so it stays proportional to the backlog rather than to all adds.
+    public void markFlushed(Collection<String> ids, Collection<Expense> remaining) throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                for (String id : ids) {
+                    expenseLog.appendDelete(id);
+                }
+                if (expenseLog.end() < CHECKPOINT_BYTES) {
+                    return;
+                }
+                Path target = generations.next();
+                ExpenseLog checkpoint = ExpenseLog.open(target, SEGMENT_SIZE);
+                checkpoint.recover(record -> { });
+                for (Expense expense : remaining) {
+                    checkpoint.appendPut(expense);
+                }
+                checkpoint.force();
+                generations.switchTo(target);
+                expenseLog.close();
+                generations.deleteOthers();
+                expenseLog = checkpoint;
+                durable = checkpoint.end();
+            }
+        }
+    }
+
+    // Bytes in use, including flushed records not yet dropped by a checkpoint
+    public synchronized long size() {
+        return expenseLog.end();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                expenseLog.close();
+            }
+        }
+    }
+}
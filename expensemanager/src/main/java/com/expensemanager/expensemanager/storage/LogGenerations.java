@@ -0,0 +1,88 @@
+package com.expensemanager.expensemanager.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// The files behind one log path that is rewritten now and then (compaction, checkpoints). Windows refuses to rename
+// over or delete a file that is open or still memory-mapped, and Java cannot unmap on demand, so a rewrite never
+// replaces the live file: it goes to a new generation, <path>.<n>, and the small pointer file <path>.current, which
+// nothing keeps open, is atomically replaced to name it. Generation 0 is the path itself, so logs written before
+// generations open unchanged. Files of older generations are deleted once closed, or at the next open if the
+// platform still holds them.
+final class LogGenerations {
+
+    private static final Logger log = LoggerFactory.getLogger(LogGenerations.class);
+
+    private final Path path;
+    private final Path pointer;
+    private long generation;
+
+    LogGenerations(Path path) throws IOException {
+        this.path = path;
+        this.pointer = path.resolveSibling(path.getFileName() + ".current");
+        if (Files.exists(pointer)) {
+            String name = Files.readString(pointer, StandardCharsets.UTF_8).trim();
+            generation = Long.parseLong(name.substring(name.lastIndexOf('.') + 1));
+        }
+    }
+
+    // The file of the current generation
+    Path current() {
+        return file(generation);
+    }
+
+    // A fresh file for the next generation; it only becomes current with switchTo
+    Path next() throws IOException {
+        Path next = file(generation + 1);
+        Files.deleteIfExists(next);  // Left by a rewrite that stopped before switching
+        return next;
+    }
+
+    // Makes the next generation current; a crash leaves either the old or the new one current, never neither
+    void switchTo(Path next) throws IOException {
+        Path written = pointer.resolveSibling(pointer.getFileName() + ".tmp");
+        Files.writeString(written, next.getFileName().toString(), StandardCharsets.UTF_8);
+        Files.move(written, pointer, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        generation++;
+    }
+
+    // Deletes every generation but the current one; files the platform still holds open are left for the next call
+    void deleteOthers() {
+        Path directory = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        Path current = current().getFileName();
+        // Only the path itself and <path>.<digits>; siblings such as <path>.current or <path>-2024 are not generations
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, file -> {
+            String name = file.getFileName().toString();
+            return name.equals(path.getFileName().toString()) || name.startsWith(prefix)
+                    && name.length() > prefix.length() && name.substring(prefix.length()).chars().allMatch(Character::isDigit);
+        })) {
+            for (Path file : files) {
+                if (!file.getFileName().equals(current)) {
+                    delete(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list old generations of {}", path, e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Old log generation {} is still in use; it is deleted later", file, e);
+        }
+    }
+
+    private Path file(long generation) {
+        return generation == 0 ? path : path.resolveSibling(path.getFileName() + "." + generation);
+    }
+}
@@ -0,0 +1,80 @@
+package com.expensemanager.expensemanager.tenant;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Sets TenantContext for each HTTP request from the expensemanager.tenant.header header, falling back to
+// expensemanager.tenant.owner unless expensemanager.tenant.header-required is set. The header is trusted as is,
+// so multi-tenant deployments put the API behind a gateway that authenticates the caller and sets it. Every response
+// depends on it, so each one says so in Vary and no shared cache serves one owner's body or 304 to another.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TenantConfiguration implements WebMvcConfigurer {
+
+    private final String header;
+    private final String defaultOwner;
+    private final boolean headerRequired;
+
+    TenantConfiguration(@Value("${expensemanager.tenant.header:X-Expense-Owner}") String header,
+                        @Value("${expensemanager.tenant.owner:" + TenantContext.DEFAULT_OWNER + "}") String defaultOwner,
+                        @Value("${expensemanager.tenant.header-required:false}") boolean headerRequired) {
+        this.header = header;
+        this.defaultOwner = TenantContext.validate(defaultOwner);
+        this.headerRequired = headerRequired;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            // A missing (when required) or malformed owner is rejected before the handler runs
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                    throws IOException {
+                if (!(handler instanceof HandlerMethod)) {
+                    return true;
+                }
+                response.addHeader(HttpHeaders.VARY, header);
+                String owner = request.getHeader(header);
+                if (owner == null || owner.isBlank()) {
+                    if (headerRequired) {
+                        response.sendError(HttpStatus.BAD_REQUEST.value(), "Missing " + header + " header");
+                        return false;
+                    }
+                    owner = defaultOwner;
+                }
+                try {
+                    TenantContext.set(owner.trim());
+                } catch (IllegalArgumentException e) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                    Exception ex) {
+                TenantContext.clear();
+            }
+
+            // Streaming responses have already captured the owner in their queries; free the request thread
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                    Object handler) {
+                TenantContext.clear();
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.expensemanager.expensemanager.tenant;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// The owner (tenant) whose expenses the current thread reads and writes. TenantConfiguration sets it per HTTP request
+// and ExpenseCLI once per session; ExpenseStore implementations scope every operation to it. Reading it on a thread
+// where none is bound is an error rather than a fallback, so work that lost its owner (another thread, a background
+// job) fails instead of acting for some other tenant. DEFAULT_OWNER is only the owner entry points bind when none is
+// configured, and the one the embedded log gives records written before ownership.
+public final class TenantContext {
+
+    public static final String DEFAULT_OWNER = "default";
+
+    // Owners become part of index keys, ETags and log records, so keep them short and unambiguous
+    private static final Pattern VALID_OWNER = Pattern.compile("[A-Za-z0-9._@-]{1,64}");
+
+    private static final ThreadLocal<String> OWNER = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String owner = OWNER.get();
+        if (owner == null) {
+            throw new IllegalStateException("No owner is bound to thread " + Thread.currentThread().getName()
+                    + "; bind one with TenantContext.set, callAs or runAs");
+        }
+        return owner;
+    }
+
+    public static void set(String owner) {
+        OWNER.set(validate(owner));
+    }
+
+    public static void clear() {
+        OWNER.remove();
+    }
+
+    // Runs work as the given owner and restores the previous one afterwards
+    public static <T> T callAs(String owner, Supplier<T> work) {
+        String previous = OWNER.get();
+        set(owner);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                OWNER.set(previous);
+            } else {
+                OWNER.remove();
+            }
+        }
+    }
+
+    public static void runAs(String owner, Runnable work) {
+        callAs(owner, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static String validate(String owner) {
+        if (owner == null || !VALID_OWNER.matcher(owner).matches()) {
+            throw new IllegalArgumentException(
+                    "Owner must be 1-64 letters, digits or . _ @ - characters, got: " + owner);
+        }
+        return owner;
+    }
+}
@@ -2,8 +2,11 @@ package com.expensemanager.expensemanager;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+// The server profile leaves out the interactive CLI, and without startup index creation nothing contacts MongoDB
+@SpringBootTest(properties = "spring.data.mongodb.auto-index-creation=false")
+@ActiveProfiles("server")
 class ExpensemanagerApplicationTests {
 
 	@Test
@@ -0,0 +1,81 @@
+package com.expensemanager.expensemanager.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.expensemanager.expensemanager.analytics.AnalyticsReport.PeriodTotal;
+
+class ExpenseAnalyticsTests {
+
+	@Test
+	void computesPeriodsPercentilesAndWeekdays() {
+		// Mon 2024-01-29, Wed 2024-01-31 (x2), Thu 2024-02-01, Mon 2024-02-05
+		ExpenseColumns columns = new ExpenseColumns.Builder()
+				.add(day(2024, 1, 29), 1000)
+				.add(day(2024, 1, 31), 200)
+				.add(day(2024, 1, 31), 300)
+				.add(day(2024, 2, 1), 4000)
+				.add(day(2024, 2, 5), 700)
+				.build();
+
+		AnalyticsReport report = ExpenseAnalytics.analyze(columns, Duration.ZERO);
+
+		assertThat(report.total()).isEqualTo(6200);
+		assertThat(report.weekly()).containsExactly(
+				new PeriodTotal(LocalDate.of(2024, 1, 29), 5500, 4),
+				new PeriodTotal(LocalDate.of(2024, 2, 5), 700, 1));
+		assertThat(report.monthly()).containsExactly(
+				new PeriodTotal(LocalDate.of(2024, 1, 1), 1500, 3),
+				new PeriodTotal(LocalDate.of(2024, 2, 1), 4700, 2));
+		// Daily totals 500, 700, 1000, 4000
+		assertThat(report.dailyPercentiles()).isEqualTo(new AnalyticsReport.DailyPercentiles(700, 4000, 4000, 4000));
+		assertThat(report.byDayOfWeek().get(0).day()).isEqualTo(DayOfWeek.MONDAY);
+		assertThat(report.byDayOfWeek().get(0).total()).isEqualTo(1700);
+		assertThat(report.byDayOfWeek().get(2).count()).isEqualTo(2);
+		// 2024-01-29..2024-02-05 is 8 calendar days; the last 7 hold 200+300+4000+700
+		assertThat(report.recentTrend()).hasSize(8);
+		assertThat(report.recentTrend().get(7).average7()).isEqualTo(5200 / 7.0);
+		assertThat(report.recentTrend().get(7).average30()).isEqualTo(6200 / 8.0);
+	}
+
+	@Test
+	void parallelBucketingMatchesASequentialFold() {
+		Random random = new Random(42);
+		ExpenseColumns.Builder builder = new ExpenseColumns.Builder();
+		Map<LocalDate, Long> monthly = new TreeMap<>();
+		long day = day(2015, 3, 7);
+		for (int i = 0; i < 1_000_000; i++) {
+			day += random.nextInt(100) == 0 ? 1 + random.nextInt(3) : 0;
+			long amount = 1 + random.nextInt(100_000);
+			builder.add(day, amount);
+			monthly.merge(LocalDate.ofEpochDay(day).withDayOfMonth(1), amount, Long::sum);
+		}
+
+		AnalyticsReport report = ExpenseAnalytics.analyze(builder.build(), Duration.ZERO, new ForkJoinPool(4));
+
+		assertThat(report.expenses()).isEqualTo(1_000_000);
+		assertThat(report.monthly()).hasSize(monthly.size());
+		report.monthly().forEach(month -> assertThat(month.total()).isEqualTo(monthly.get(month.start())));
+		assertThat(report.weekly().stream().mapToLong(PeriodTotal::count).sum()).isEqualTo(1_000_000);
+	}
+
+	@Test
+	void rejectsRowsOutOfDateOrder() {
+		ExpenseColumns.Builder builder = new ExpenseColumns.Builder().add(day(2024, 1, 2), 100);
+		assertThatThrownBy(() -> builder.add(day(2024, 1, 1), 100)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static long day(int year, int month, int dayOfMonth) {
+		return LocalDate.of(year, month, dayOfMonth).toEpochDay();
+	}
+}
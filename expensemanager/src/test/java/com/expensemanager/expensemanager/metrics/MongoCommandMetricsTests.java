@@ -0,0 +1,64 @@
+package com.expensemanager.expensemanager.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MongoCommandMetricsTests {
+
+	@Test
+	void shapeKeepsFieldsAndOperatorsButHidesValues() {
+		BsonDocument find = BsonDocument.parse("{ find: 'expenses', filter: { date: { $date: '2024-01-01T00:00:00Z' },"
+				+ " _id: { $in: ['a', 'b', 'c'] } }, sort: { date: 1 }, limit: 21, $db: 'expense_manager', lsid: { id: 1 } }");
+
+		assertThat(MongoCommandMetrics.shape(find, "find"))
+				.isEqualTo("{filter: {date: ?, _id: {$in: [?, ...]}}, sort: {date: ?}, limit: ?}");
+	}
+
+	@Test
+	void recordsTheSizeOfRepliesAsReceived() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MongoCommandMetrics metrics = new MongoCommandMetrics(registry, new QueryBurstTracker(registry, 3), Duration.ofSeconds(1));
+		ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+		RawBsonDocument reply = RawBsonDocument.parse("{ n: 2, ok: 1.0 }");
+
+		metrics.commandSucceeded(new CommandSucceededEvent(null, 1, 1, connection, "expense_manager", "delete", reply, 1000));
+		// A reply the driver did not pass on raw is timed but not sized
+		metrics.commandSucceeded(new CommandSucceededEvent(null, 2, 2, connection, "expense_manager", "delete", new BsonDocument(), 1000));
+
+		assertThat(registry.get("expensemanager.mongo.command.documents").summary().totalAmount()).isEqualTo(2);
+		assertThat(registry.get("expensemanager.mongo.command.bytes").summary().count()).isEqualTo(1);
+		assertThat(registry.get("expensemanager.mongo.command.bytes").summary().totalAmount())
+				.isEqualTo(reply.getByteBuffer().remaining());
+		assertThat(registry.get("expensemanager.mongo.command").timer().count()).isEqualTo(2);
+	}
+
+	@Test
+	void countsRepeatedQueryShapesAsOneBurstPerAction() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		QueryBurstTracker tracker = new QueryBurstTracker(registry, 3);
+
+		tracker.track("cli 6", () -> {
+			for (int i = 0; i < 5; i++) {
+				tracker.record("find expenses {filter: {date: ?}}");
+			}
+			tracker.record("aggregate expenses {pipeline: [{$group: {_id: ?}}]}");
+		});
+		tracker.record("find expenses {filter: {date: ?}}");  // Outside any action: ignored
+
+		assertThat(registry.get("expensemanager.query.bursts").tag("action", "cli 6").counter().count()).isEqualTo(1);
+		assertThat(registry.get("expensemanager.action.commands").summary().totalAmount()).isEqualTo(6);
+	}
+}
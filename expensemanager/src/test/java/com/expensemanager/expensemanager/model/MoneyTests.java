@@ -0,0 +1,46 @@
+package com.expensemanager.expensemanager.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTests {
+
+	@Test
+	void parsesDecimalTextIntoWholeSen() {
+		assertThat(Money.parse("12.5")).isEqualTo(1250);
+		assertThat(Money.parse(" 0.10 ")).isEqualTo(10);
+		assertThat(Money.parse("7")).isEqualTo(700);
+		assertThat(Money.parse("1E+3")).isEqualTo(100000);
+	}
+
+	@Test
+	void rejectsFractionsOfASen() {
+		assertThatIllegalArgumentException().isThrownBy(() -> Money.parse("0.005"));
+		assertThatIllegalArgumentException().isThrownBy(() -> Money.parse("abc"));
+		assertThatIllegalArgumentException().isThrownBy(() -> Money.parse(""));
+	}
+
+	@Test
+	void formatsWithTwoDecimals() {
+		assertThat(Money.format(1250)).isEqualTo("12.50");
+		assertThat(Money.format(5)).isEqualTo("0.05");
+		assertThat(Money.format(-199)).isEqualTo("-1.99");
+	}
+
+	@Test
+	void sumsExactlyWhereDoublesDrift() {
+		long sen = LongStream.range(0, 1_000_000).map(i -> Money.parse("0.10")).sum();
+		double ringgit = 0.0;
+		for (int i = 0; i < 1_000_000; i++) {
+			ringgit += 0.10;
+		}
+
+		assertThat(Money.format(sen)).isEqualTo("100000.00");
+		assertThat(ringgit).isNotEqualTo(100000.0);
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.expensemanager.expensemanager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.ExpenseService;
+import com.expensemanager.expensemanager.service.ExpenseWriteResult.Status;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+import com.mongodb.ConnectionString;
+
+// The conditional findAndModify / findAndRemove path of the MongoDB store under concurrent writers. Needs a running
+// MongoDB (EXPENSEMANAGER_TEST_MONGODB_URI, default mongodb://localhost:27017) and is skipped when none answers;
+// every run uses a throwaway database.
+@SpringBootTest
+@ActiveProfiles("server")
+@EnabledIf("mongoReachable")
+class ExpenseRepositoryConcurrencyTests {
+
+	private static final String MONGODB_URI = System.getenv().getOrDefault("EXPENSEMANAGER_TEST_MONGODB_URI",
+			"mongodb://localhost:27017");
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final int THREADS = 8;
+	private static final int INCREMENTS = 100;
+
+	@DynamicPropertySource
+	static void mongo(DynamicPropertyRegistry registry) {
+		String base = MONGODB_URI.endsWith("/") ? MONGODB_URI : MONGODB_URI + "/";
+		registry.add("spring.data.mongodb.uri", () -> base + "expense_manager_test_" + UUID.randomUUID().toString().substring(0, 8));
+	}
+
+	static boolean mongoReachable() {
+		String host = new ConnectionString(MONGODB_URI).getHosts().get(0);
+		int colon = host.lastIndexOf(':');
+		try (Socket socket = new Socket()) {
+			socket.connect(colon < 0 ? new InetSocketAddress(host, 27017)
+					: new InetSocketAddress(host.substring(0, colon), Integer.parseInt(host.substring(colon + 1))), 500);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseRepository expenseRepository;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	void bindOwner() {
+		TenantContext.set(TenantContext.DEFAULT_OWNER);
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		TenantContext.clear();
+		mongoTemplate.getDb().drop();
+	}
+
+	@Test
+	void losesNoIncrementsUnderContention() throws Exception {
+		String id = expenseService.addExpense("Optimistic", 1, JAN_1).getId();
+
+		race(() -> {
+			for (int i = 0; i < INCREMENTS; i++) {
+				while (expenseService.modifyExpense(id, expense -> expense.setAmount(expense.getAmount() + 1))
+						.status() != Status.APPLIED) {
+					// Gave up after its own retries: try again, as a caller with nothing better to do would
+				}
+			}
+		});
+
+		Expense stored = expenseRepository.findById(id).orElseThrow();
+		assertThat(stored.getAmount()).isEqualTo(1 + THREADS * INCREMENTS);
+		assertThat(stored.getVersion()).isEqualTo(THREADS * INCREMENTS);
+		assertThat(expenseService.verifySummaryIndex()).isEmpty();
+	}
+
+	@Test
+	void onlyOneWriterHoldingAVersionWins() throws Exception {
+		String id = expenseService.addExpense("Lunch", 1250, JAN_1).getId();
+
+		// Every thread edits from version 0 at once; the version check lets exactly one of them through
+		List<Status> statuses = new ArrayList<>();
+		race(() -> {
+			Status status = expenseService.editExpense(id, 0, "Dinner " + Thread.currentThread().getId(), 2000).status();
+			synchronized (statuses) {
+				statuses.add(status);
+			}
+		});
+		assertThat(statuses).filteredOn(status -> status == Status.APPLIED).hasSize(1);
+		assertThat(statuses).filteredOn(status -> status == Status.CONFLICT).hasSize(THREADS - 1);
+
+		// A delete holding the old version fails too and leaves the edited expense in place
+		assertThat(expenseService.deleteExpense(id, 0).status()).isEqualTo(Status.CONFLICT);
+		assertThat(expenseService.deleteExpense(id, 1).status()).isEqualTo(Status.APPLIED);
+		assertThat(expenseService.verifySummaryIndex()).isEmpty();
+	}
+
+	// Runs the task on every thread at once, as the owner bound to the calling thread
+	private static void race(Runnable task) throws Exception {
+		String owner = TenantContext.current();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> TenantContext.runAs(owner, task)));
+			}
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
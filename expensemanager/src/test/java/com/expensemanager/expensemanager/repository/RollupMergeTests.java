@@ -0,0 +1,60 @@
+package com.expensemanager.expensemanager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.expensemanager.expensemanager.analytics.AnalyticsReport;
+import com.expensemanager.expensemanager.analytics.ExpenseAnalytics;
+import com.expensemanager.expensemanager.analytics.ExpenseColumns;
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.MonthlyRollup;
+
+class RollupMergeTests {
+
+	private static final LocalDate JAN_5 = LocalDate.of(2022, 1, 5);
+	private static final LocalDate JAN_20 = LocalDate.of(2022, 1, 20);
+	private static final LocalDate FEB_1 = LocalDate.of(2022, 2, 1);
+
+	// January was archived; one expense was added to Jan 20 afterwards and February is still live
+	private static final List<MonthlyRollup> ROLLUPS = List.of(new MonthlyRollup("alice", JAN_5, List.of(
+			new DailySummary(JAN_5, 3000, 3, 500, 1500),
+			new DailySummary(JAN_20, 1000, 1, 1000, 1000))));
+
+	@Test
+	void addsRolledUpDaysToLiveSummaries() {
+		List<DailySummary> live = List.of(new DailySummary(JAN_20, 200, 1, 200, 200), new DailySummary(FEB_1, 700, 2, 300, 400));
+
+		List<DailySummary> merged = RollupMerge.summaries(ROLLUPS, live, null, null);
+		assertThat(merged).extracting(DailySummary::getDate).containsExactly(JAN_5, JAN_20, FEB_1);
+		assertThat(merged.get(1)).extracting(DailySummary::getTotal, DailySummary::getCount, DailySummary::getMin,
+				DailySummary::getMax).containsExactly(1200L, 2L, 200L, 1000L);
+
+		assertThat(RollupMerge.summaries(ROLLUPS, List.of(), JAN_20, FEB_1)).extracting(DailySummary::getDate)
+				.containsExactly(JAN_20);
+		assertThat(ROLLUPS.get(0).getId()).isEqualTo("alice/2022-01");
+		assertThat(ROLLUPS.get(0).getCount()).isEqualTo(4);
+	}
+
+	@Test
+	void interleavesRolledUpDaysWithScannedExpensesInDateOrder() {
+		ExpenseColumns.Builder builder = new ExpenseColumns.Builder();
+		RollupMerge.scan(ROLLUPS, null, null, builder, sink -> {
+			sink.accept(JAN_20.toEpochDay(), 200);
+			sink.accept(FEB_1.toEpochDay(), 300);
+			sink.accept(FEB_1.toEpochDay(), 400);
+		});
+		ExpenseColumns columns = builder.build();
+		assertThat(columns.size()).isEqualTo(5);
+		assertThat(columns.expenses()).isEqualTo(7);
+
+		AnalyticsReport report = ExpenseAnalytics.analyze(columns, Duration.ZERO);
+		assertThat(report.expenses()).isEqualTo(7);
+		assertThat(report.total()).isEqualTo(4900);
+		assertThat(report.monthly()).extracting(AnalyticsReport.PeriodTotal::count).containsExactly(5L, 2L);
+	}
+}
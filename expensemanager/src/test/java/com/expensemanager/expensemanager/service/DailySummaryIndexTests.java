@@ -0,0 +1,51 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.service.DailySummaryIndex.DayTotal;
+
+class DailySummaryIndexTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final LocalDate JAN_2 = LocalDate.of(2024, 1, 2);
+	private static final LocalDate JAN_3 = LocalDate.of(2024, 1, 3);
+
+	@Test
+	void tracksTotalsAndExtremesAcrossWrites() {
+		DailySummaryIndex index = new DailySummaryIndex();
+		index.load(List.of(
+				new DailySummary(JAN_1, 1000, 2, 400, 600),
+				new DailySummary(JAN_2, 3000, 1, 3000, 3000)));
+
+		index.add(JAN_3, 500);
+		index.adjust(JAN_1, 2500, 0);
+		index.remove(JAN_2, 3000);
+
+		assertThat(index.dates()).containsExactly(JAN_1, JAN_3);
+		assertThat(index.grandTotal()).isEqualTo(4000);
+		assertThat(index.maxDay()).contains(new DayTotal(JAN_1, 3500, 2));
+		assertThat(index.minDay()).contains(new DayTotal(JAN_3, 500, 1));
+
+		index.removeDate(JAN_1);
+		index.removeDate(JAN_3);
+		assertThat(index.dates()).isEmpty();
+		assertThat(index.maxDay()).isEmpty();
+		assertThat(index.grandTotal()).isZero();
+	}
+
+	@Test
+	void ignoresWritesUntilLoaded() {
+		DailySummaryIndex index = new DailySummaryIndex();
+		index.add(JAN_1, 500);
+
+		index.load(List.of(new DailySummary(JAN_2, 100, 1, 100, 100)));
+		assertThat(index.dates()).containsExactly(JAN_2);
+	}
+
+}
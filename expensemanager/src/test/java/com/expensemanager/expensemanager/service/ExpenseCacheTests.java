@@ -0,0 +1,88 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpensePage;
+
+class ExpenseCacheTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final LocalDate JAN_2 = LocalDate.of(2024, 1, 2);
+	private static final String ALICE = "alice";
+	private static final String BOB = "bob";
+
+	@Test
+	void servesRepeatedReadsUntilTheDateIsInvalidated() {
+		ExpenseCache cache = new ExpenseCache(100, Duration.ofMinutes(10));
+		AtomicInteger loads = new AtomicInteger();
+
+		for (int i = 0; i < 3; i++) {
+			cache.day(ALICE, JAN_1, date -> {
+				loads.incrementAndGet();
+				return List.of(new Expense("Lunch", 1250, date));
+			});
+			cache.dayPage(ALICE, JAN_1, null, 20, () -> {
+				loads.incrementAndGet();
+				return new ExpensePage(List.of(), null);
+			});
+		}
+		assertThat(loads).hasValue(2);
+
+		cache.invalidate(ALICE, JAN_2);
+		cache.invalidate(BOB, JAN_1);
+		cache.day(ALICE, JAN_1, date -> List.of());
+		assertThat(loads).hasValue(2);
+
+		// Another owner's same date is a separate entry
+		cache.day(BOB, JAN_1, date -> {
+			loads.incrementAndGet();
+			return List.of();
+		});
+		assertThat(loads).hasValue(3);
+
+		cache.invalidate(ALICE, JAN_1);
+		cache.day(ALICE, JAN_1, date -> {
+			loads.incrementAndGet();
+			return List.of();
+		});
+		cache.dayPage(ALICE, JAN_1, null, 20, () -> {
+			loads.incrementAndGet();
+			return new ExpensePage(List.of(), null);
+		});
+		assertThat(loads).hasValue(5);
+
+		CacheStatistics days = cache.statistics().get("days");
+		assertThat(days.hits()).isEqualTo(3);
+		assertThat(days.misses()).isEqualTo(3);
+	}
+
+	@Test
+	void dropsAPageWhoseLoadOverlappedAWrite() {
+		ExpenseCache cache = new ExpenseCache(100, Duration.ofMinutes(10));
+		AtomicInteger loads = new AtomicInteger();
+
+		// The write lands while the page is being read from the store, so the loaded page may predate it
+		cache.dayPage(ALICE, JAN_1, null, 20, () -> {
+			loads.incrementAndGet();
+			cache.invalidate(ALICE, JAN_1);
+			return new ExpensePage(List.of(), null);
+		});
+		cache.dayPage(ALICE, JAN_1, null, 20, () -> {
+			loads.incrementAndGet();
+			return new ExpensePage(List.of(), null);
+		});
+		cache.dayPage(ALICE, JAN_1, null, 20, () -> {
+			loads.incrementAndGet();
+			return new ExpensePage(List.of(), null);
+		});
+		assertThat(loads).hasValue(2);
+	}
+}
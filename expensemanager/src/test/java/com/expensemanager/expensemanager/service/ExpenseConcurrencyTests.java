@@ -0,0 +1,137 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.ExpenseWriteResult.Status;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Many threads incrementing the same expense: every increment must survive, first with optimistic versions
+// (which also work across instances) and then with a JVM-local lock as the baseline
+@SpringBootTest
+@ActiveProfiles({ "server", "embedded" })
+class ExpenseConcurrencyTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final int THREADS = 8;
+	private static final int INCREMENTS = 250;
+
+	@TempDir
+	static Path dir;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) {
+		registry.add("expensemanager.storage.path", () -> dir.resolve("expenses.log").toString());
+	}
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@BeforeEach
+	void bindOwner() {
+		TenantContext.set(TenantContext.DEFAULT_OWNER);
+	}
+
+	@AfterEach
+	void unbindOwner() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void losesNoIncrementsUnderContention() throws Exception {
+		long total = THREADS * INCREMENTS;
+
+		String optimisticId = expenseService.addExpense("Optimistic", 1, JAN_1).getId();
+		race(() -> {
+			for (int i = 0; i < INCREMENTS; i++) {
+				while (expenseService.modifyExpense(optimisticId, expense -> expense.setAmount(expense.getAmount() + 1))
+						.status() != Status.APPLIED) {
+					// modifyExpense retries a few times itself; the caller decides what to do once it gives up
+				}
+			}
+		});
+
+		String lockedId = expenseService.addExpense("Locked", 1, JAN_1).getId();
+		ReentrantLock lock = new ReentrantLock();
+		race(() -> {
+			for (int i = 0; i < INCREMENTS; i++) {
+				lock.lock();
+				try {
+					Expense current = find(lockedId);
+					expenseService.editExpense(lockedId, current.getName(), current.getAmount() + 1);
+				} finally {
+					lock.unlock();
+				}
+			}
+		});
+
+		Expense optimistic = find(optimisticId);
+		assertThat(optimistic.getAmount()).isEqualTo(1 + total);
+		assertThat(optimistic.getVersion()).isEqualTo(total);
+		assertThat(find(lockedId).getAmount()).isEqualTo(1 + total);
+		assertThat(expenseService.verifySummaryIndex()).isEmpty();
+	}
+
+	@Test
+	void countsWritesRacingTheFirstIndexLoadOnce() throws Exception {
+		// A fresh owner, so the index is first loaded while every thread is still adding
+		String owner = "first-load";
+		race(() -> TenantContext.runAs(owner, () -> {
+			for (int i = 0; i < INCREMENTS; i++) {
+				expenseService.addExpense("Racer", 100, JAN_1.plusDays(i % 7));
+				if (i == INCREMENTS / 2) {
+					expenseService.getGrandTotal();
+				}
+			}
+		}));
+
+		TenantContext.runAs(owner, () -> {
+			assertThat(expenseService.getGrandTotal()).isEqualTo(THREADS * INCREMENTS * 100L);
+			assertThat(expenseService.verifySummaryIndex()).isEmpty();
+		});
+	}
+
+	private Expense find(String id) {
+		return expenseService.getExpensesByDate(JAN_1).stream()
+				.filter(expense -> expense.getId().equals(id))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	// Runs the task on every thread at once, as the owner bound to the calling thread
+	private static void race(Runnable task) throws Exception {
+		String owner = TenantContext.current();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> TenantContext.runAs(owner, task)));
+			}
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
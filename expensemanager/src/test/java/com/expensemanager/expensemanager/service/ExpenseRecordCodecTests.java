@@ -0,0 +1,88 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.expensemanager.expensemanager.model.Expense;
+
+class ExpenseRecordCodecTests {
+
+	@Test
+	void decodesQuotedCsvInHeaderOrder() {
+		ExpenseRecordCodec codec = new ExpenseRecordCodec(ExpenseFileFormat.CSV);
+		assertThat(codec.acceptHeader("date,name,amount")).isTrue();
+
+		Expense expense = codec.decode("2024-03-01,\"Lunch, \"\"Nasi\"\" Lemak\",12.50");
+
+		assertThat(expense.getName()).isEqualTo("Lunch, \"Nasi\" Lemak");
+		assertThat(expense.getAmount()).isEqualTo(1250);
+		assertThat(expense.getDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+	}
+
+	@Test
+	void decodesJsonLines() {
+		ExpenseRecordCodec codec = new ExpenseRecordCodec(ExpenseFileFormat.JSONL);
+		assertThat(codec.acceptHeader("{\"name\":\"x\"}")).isFalse();
+
+		Expense expense = codec.decode("{\"name\":\"Coffee\",\"amount\":4.2,\"date\":\"2024-03-02\"}");
+
+		assertThat(expense.getName()).isEqualTo("Coffee");
+		assertThat(expense.getAmount()).isEqualTo(420);
+	}
+
+	@Test
+	void rejectsRowsThatAddExpenseWouldReject() {
+		ExpenseRecordCodec codec = new ExpenseRecordCodec(ExpenseFileFormat.CSV);
+
+		assertThatIllegalArgumentException().isThrownBy(() -> codec.decode(" ,5,2024-01-01"));
+		assertThatIllegalArgumentException().isThrownBy(() -> codec.decode("Tea,-1,2024-01-01"));
+		assertThatIllegalArgumentException().isThrownBy(() -> codec.decode("Tea,abc,2024-01-01"));
+		assertThatIllegalArgumentException().isThrownBy(() -> codec.decode("Tea,1.005,2024-01-01"));
+		assertThatIllegalArgumentException().isThrownBy(() -> codec.decode("Tea,1,01/02/2024"));
+		assertThatIllegalArgumentException().isThrownBy(() -> codec.decode("Tea,1"));
+	}
+
+	@Test
+	void encodedRecordsDecodeToTheSameExpense() {
+		Expense original = new Expense("Parking, \"level 2\"", 350, LocalDate.of(2024, 5, 6));
+		for (ExpenseFileFormat format : ExpenseFileFormat.values()) {
+			ExpenseRecordCodec codec = new ExpenseRecordCodec(format);
+
+			Expense decoded = codec.decode(codec.encode(original));
+
+			assertThat(decoded.getName()).isEqualTo(original.getName());
+			assertThat(decoded.getAmount()).isEqualTo(original.getAmount());
+			assertThat(decoded.getDate()).isEqualTo(original.getDate());
+		}
+	}
+
+	@Test
+	void namesWithLineBreaksSurviveACsvRoundTripLineByLine() throws IOException {
+		Expense original = new Expense("Groceries\nmilk, eggs", 2890, LocalDate.of(2024, 5, 7));
+		ExpenseRecordCodec codec = new ExpenseRecordCodec(ExpenseFileFormat.CSV);
+
+		// Read back the way the import does: a line at a time, joining lines while a quoted field is open
+		BufferedReader reader = new BufferedReader(new StringReader(codec.encode(original) + "\nTea,1.00,2024-05-08\n"));
+		List<Expense> decoded = new ArrayList<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			while (codec.continuesOnNextLine(line)) {
+				line = line + "\n" + reader.readLine();
+			}
+			decoded.add(codec.decode(line));
+		}
+
+		assertThat(decoded).extracting(Expense::getName).containsExactly(original.getName(), "Tea");
+		assertThat(decoded.get(0).getAmount()).isEqualTo(original.getAmount());
+	}
+
+}
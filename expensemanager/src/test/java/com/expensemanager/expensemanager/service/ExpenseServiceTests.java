@@ -0,0 +1,98 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.service.DailySummaryIndex.DayTotal;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+// Runs the real service against the embedded storage engine, so no MongoDB server is needed
+@SpringBootTest
+@ActiveProfiles({ "server", "embedded" })
+class ExpenseServiceTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final LocalDate JAN_2 = LocalDate.of(2024, 1, 2);
+
+	@TempDir
+	static Path dir;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) {
+		registry.add("expensemanager.storage.path", () -> dir.resolve("expenses.log").toString());
+	}
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	// The service acts for the owner bound to the calling thread, and there is none unless a test binds it
+	@BeforeEach
+	void bindOwner() {
+		TenantContext.set(TenantContext.DEFAULT_OWNER);
+	}
+
+	@AfterEach
+	void unbindOwner() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void keepsTheSummaryIndexAndCacheInStepWithWrites() {
+		Expense lunch = expenseService.addExpense("Lunch", 1250, JAN_1);
+		expenseService.addExpense("Coffee", 800, JAN_1);
+		expenseService.addExpense("Parking", 300, JAN_2);
+		assertThat(expenseService.getExpensesByDate(JAN_1)).hasSize(2);
+
+		expenseService.editExpense(lunch.getId(), "Team lunch", 4000);
+		assertThat(expenseService.getExpensesByDate(JAN_1)).extracting(Expense::getName).contains("Team lunch");
+		assertThat(expenseService.getDailyTotal(JAN_1)).contains(new DayTotal(JAN_1, 4800, 2));
+
+		assertThat(expenseService.deleteAllExpensesByDate(JAN_2)).isEqualTo(1);
+		assertThat(expenseService.getDistinctDates()).containsExactly(JAN_1);
+		assertThat(expenseService.getGrandTotal()).isEqualTo(4800);
+		assertThat(expenseService.verifySummaryIndex()).isEmpty();
+		assertThat(expenseService.searchExpensesByName("lunch", 0, 10)).extracting(Expense::getId)
+				.isEqualTo(List.of(lunch.getId()));
+	}
+
+	@Test
+	void keepsEachOwnersExpensesApart() {
+		LocalDate mar1 = LocalDate.of(2024, 3, 1);
+		Expense rent = TenantContext.callAs("alice", () -> expenseService.addExpense("Rent", 150000, mar1));
+		TenantContext.runAs("bob", () -> {
+			expenseService.addExpense("Rent", 90000, mar1);
+			// Another owner's expense cannot be read, edited or deleted by id
+			assertThat(expenseService.editExpense(rent.getId(), "Stolen", 1)).isEmpty();
+			assertThat(expenseService.deleteExpense(rent.getId())).isEmpty();
+			assertThat(expenseService.getExpensesByDate(mar1)).extracting(Expense::getAmount).containsExactly(90000L);
+		});
+
+		TenantContext.runAs("alice", () -> {
+			assertThat(expenseService.getExpensesByDate(mar1)).extracting(Expense::getName).containsExactly("Rent");
+			assertThat(expenseService.getDailyTotal(mar1)).contains(new DayTotal(mar1, 150000, 1));
+			assertThat(expenseService.getGrandTotal()).isEqualTo(150000);
+			assertThat(expenseService.verifySummaryIndex()).isEmpty();
+		});
+		assertThat(expenseService.getDistinctDates()).doesNotContain(mar1);
+		assertThat(expenseService.getExpensesByName("Rent")).isEmpty();
+
+		// With no owner bound, reads fail instead of falling back to the default owner's expenses
+		TenantContext.clear();
+		assertThatThrownBy(expenseService::getDistinctDates).isInstanceOf(IllegalStateException.class);
+	}
+}
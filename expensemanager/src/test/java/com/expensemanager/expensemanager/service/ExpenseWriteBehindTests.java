@@ -0,0 +1,137 @@
+package com.expensemanager.expensemanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpenseStore;
+import com.expensemanager.expensemanager.storage.EmbeddedExpenseStore;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExpenseWriteBehindTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final LocalDate JAN_2 = LocalDate.of(2024, 1, 2);
+	private static final Duration NEVER = Duration.ofHours(1);  // Only explicit flushes reach the store
+
+	@TempDir
+	Path dir;
+
+	private EmbeddedExpenseStore openStore() throws IOException {
+		return new EmbeddedExpenseStore(dir.resolve("expenses.log"), 1 << 20, Long.MAX_VALUE);
+	}
+
+	private ExpenseWriteBehind openWriteBehind(ExpenseStore store) throws IOException {
+		return new ExpenseWriteBehind(store, new SimpleMeterRegistry(), dir.resolve("write-behind.log"), 100, NEVER, 1000, true);
+	}
+
+	@BeforeEach
+	void bindOwner() {
+		TenantContext.set(TenantContext.DEFAULT_OWNER);
+	}
+
+	@AfterEach
+	void unbindOwner() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void readsPendingExpensesUntilTheyAreFlushed() throws IOException {
+		try (EmbeddedExpenseStore store = openStore(); ExpenseWriteBehind writeBehind = openWriteBehind(store)) {
+			// Fewer than flush-size, so nothing is flushed in the background
+			for (int i = 0; i < 50; i++) {
+				writeBehind.add(new Expense("Receipt " + i, 100 + i, i < 3 ? JAN_1 : JAN_2));
+			}
+			assertThat(writeBehind.pending(TenantContext.DEFAULT_OWNER, JAN_1)).extracting(Expense::getName).containsExactly("Receipt 0", "Receipt 1", "Receipt 2");
+			assertThat(writeBehind.pending(TenantContext.DEFAULT_OWNER, JAN_2, null)).hasSize(47);
+			assertThat(writeBehind.pending(TenantContext.DEFAULT_OWNER, null, null)).hasSize(50);
+			assertThat(writeBehind.pending("someone-else", null, null)).isEmpty();
+			assertThat(store.findByDate(JAN_1)).isEmpty();
+
+			writeBehind.flush();
+			assertThat(writeBehind.pendingCount()).isZero();
+			assertThat(writeBehind.pending(TenantContext.DEFAULT_OWNER, JAN_1)).isEmpty();
+			assertThat(store.findByDate(JAN_1)).hasSize(3);
+			assertThat(store.findByDate(JAN_2)).hasSize(47);
+		}
+	}
+
+	@Test
+	void replaysUnflushedExpensesAfterRestartWithoutDuplicates() throws IOException {
+		try (EmbeddedExpenseStore store = openStore()) {
+			// The inserts succeed but the acknowledgement is lost, as if the process died before marking them flushed
+			ExpenseStore lostAcknowledgements = mock(ExpenseStore.class);
+			doAnswer(invocation -> {
+				store.insertUnordered(invocation.getArgument(0));
+				throw new IllegalStateException("Connection reset");
+			}).when(lostAcknowledgements).insertUnordered(anyList());
+
+			List<String> ids;
+			try (ExpenseWriteBehind writeBehind = openWriteBehind(lostAcknowledgements)) {
+				ids = List.of(writeBehind.add(new Expense("Lunch", 1250, JAN_1)).getId(),
+						writeBehind.add(new Expense("Taxi", 2000, JAN_2)).getId());
+			}
+			writeBehindWithUnreachableStore(JAN_1);
+
+			try (ExpenseWriteBehind writeBehind = openWriteBehind(store)) {
+				assertThat(writeBehind.pendingCount()).isEqualTo(3);
+				writeBehind.flush();
+				assertThat(writeBehind.pendingCount()).isZero();
+			}
+			assertThat(store.findByDate(JAN_1)).extracting(Expense::getName).containsExactlyInAnyOrder("Lunch", "Coffee");
+			assertThat(store.findByDate(JAN_2)).extracting(Expense::getId).containsExactly(ids.get(1));
+		}
+
+		try (ExpenseWriteBehind writeBehind = openWriteBehind(mock(ExpenseStore.class))) {
+			assertThat(writeBehind.pendingCount()).isZero();
+		}
+	}
+
+	@Test
+	void reportsExpensesTheStoreRejectsButNotDuplicates() throws IOException {
+		ExpenseStore store = mock(ExpenseStore.class);
+		when(store.insertUnordered(anyList())).thenReturn(Map.of(
+				0, "Document failed validation",
+				1, "E11000 duplicate key error collection: expense_manager.expenses"));
+		List<Expense> rejected = new ArrayList<>();
+		try (ExpenseWriteBehind writeBehind = openWriteBehind(store)) {
+			writeBehind.onRejected(rejected::addAll);
+			String invalidId = writeBehind.add(new Expense("Lunch", 1250, JAN_1)).getId();
+			writeBehind.add(new Expense("Taxi", 2000, JAN_1));
+			writeBehind.add(new Expense("Coffee", 800, JAN_2));
+			writeBehind.flush();
+
+			assertThat(writeBehind.pendingCount()).isZero();
+			assertThat(rejected).extracting(Expense::getId).containsExactly(invalidId);
+		}
+	}
+
+	private void writeBehindWithUnreachableStore(LocalDate date) throws IOException {
+		ExpenseStore unreachable = mock(ExpenseStore.class);
+		doAnswer(invocation -> {
+			throw new IllegalStateException("Timed out while waiting for a server");
+		}).when(unreachable).insertUnordered(anyList());
+		try (ExpenseWriteBehind writeBehind = openWriteBehind(unreachable)) {
+			writeBehind.add(new Expense("Coffee", 800, date));
+			assertThat(writeBehind.pendingCount()).isEqualTo(3);
+		}
+	}
+}
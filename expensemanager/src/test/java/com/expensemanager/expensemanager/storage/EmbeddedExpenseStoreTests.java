@@ -0,0 +1,204 @@
+package com.expensemanager.expensemanager.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.expensemanager.expensemanager.model.DailySummary;
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.repository.ExpenseEdit;
+import com.expensemanager.expensemanager.repository.ExpensePage;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+class EmbeddedExpenseStoreTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+	private static final LocalDate JAN_2 = LocalDate.of(2024, 1, 2);
+	private static final int SEGMENT_SIZE = 4096;  // Small, so a few hundred records already span segments
+
+	@TempDir
+	Path dir;
+
+	private EmbeddedExpenseStore open() throws IOException {
+		return new EmbeddedExpenseStore(dir.resolve("expenses.log"), SEGMENT_SIZE, Long.MAX_VALUE);
+	}
+
+	@BeforeEach
+	void bindOwner() {
+		TenantContext.set(TenantContext.DEFAULT_OWNER);
+	}
+
+	@AfterEach
+	void unbindOwner() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void replaysWritesAfterReopening() throws IOException {
+		String lunchId;
+		try (EmbeddedExpenseStore store = open()) {
+			lunchId = store.save(new Expense("Lunch", 1250, JAN_1)).getId();
+			String coffeeId = store.save(new Expense("Coffee", 800, JAN_1)).getId();
+			for (int i = 0; i < 200; i++) {
+				store.save(new Expense("Taxi " + i, 1000 + i, JAN_2));
+			}
+			store.updateNameAndAmount(lunchId, null, "Team lunch", 4000);
+			store.findAndDeleteById(coffeeId, null);
+			assertThat(store.deleteAllByIdIn(List.of(coffeeId, "missing"))).isEmpty();
+		}
+
+		try (EmbeddedExpenseStore store = open()) {
+			List<Expense> jan1 = store.findByDate(JAN_1);
+			assertThat(jan1).extracting(Expense::getId).containsExactly(lunchId);
+			assertThat(jan1.get(0).getName()).isEqualTo("Team lunch");
+			assertThat(jan1.get(0).getAmount()).isEqualTo(4000);
+			assertThat(store.findByDate(JAN_2)).hasSize(200);
+			assertThat(store.findDailySummaries()).extracting(DailySummary::getCount).containsExactly(1L, 200L);
+			assertThat(store.searchByName("taxi 19", 0, 3)).extracting(Expense::getName)
+					.containsExactly("Taxi 19", "Taxi 190", "Taxi 191");
+			// Spaces in the query count, as they do in the substring search it replaces
+			assertThat(store.searchByName(" 19", 0, 20)).hasSize(11);
+			assertThat(store.searchByName("taxi 19 ", 0, 20)).isEmpty();
+		}
+	}
+
+	@Test
+	void appliesConditionalWritesOnlyAtTheExpectedVersion() throws IOException {
+		String id;
+		try (EmbeddedExpenseStore store = open()) {
+			id = store.save(new Expense("Fuel", 5000, JAN_1)).getId();
+			assertThat(store.updateNameAndAmount(id, 0L, "Fuel", 5500)).isPresent();
+			assertThat(store.updateNameAndAmount(id, 0L, "Fuel", 6000)).isEmpty();
+			assertThat(store.findAndDeleteById(id, 0L)).isEmpty();
+		}
+		try (EmbeddedExpenseStore store = open()) {
+			Expense fuel = store.findById(id).orElseThrow();
+			assertThat(fuel.getAmount()).isEqualTo(5500);
+			assertThat(fuel.getVersion()).isEqualTo(1);
+			assertThat(store.findAndDeleteById(id, 1L)).isPresent();
+			assertThat(store.findById(id)).isEmpty();
+		}
+	}
+
+	@Test
+	void pagesInDateAndIdOrder() throws IOException {
+		try (EmbeddedExpenseStore store = open()) {
+			for (int i = 0; i < 25; i++) {
+				store.save(new Expense("Snack " + i, 100, i % 2 == 0 ? JAN_1 : JAN_2));
+			}
+			ExpensePage first = store.findPage(null, null, null, null, 20);
+			ExpensePage second = store.findPage(null, null, null, first.nextCursor(), 20);
+
+			assertThat(first.expenses()).hasSize(20);
+			assertThat(second.hasNext()).isFalse();
+			try (Stream<Expense> all = store.streamExpenses(null, null, null)) {
+				assertThat(Stream.concat(first.expenses().stream(), second.expenses().stream()).map(Expense::getId))
+						.containsExactlyElementsOf(all.map(Expense::getId).toList());
+			}
+			// A tampered cursor is the caller's mistake, not a server error
+			assertThatThrownBy(() -> store.findPage(null, null, null, "2024-13-01_abc", 20))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Test
+	void compactionKeepsOnlyLiveRecords() throws IOException {
+		// Siblings that merely share the log's name are not generations and survive the clean-up
+		Files.writeString(dir.resolve("expenses.logX123"), "unrelated");
+		Files.writeString(dir.resolve("expenses.log-2024"), "unrelated");
+		try (EmbeddedExpenseStore store = open()) {
+			String id = store.save(new Expense("Rent", 100_000, JAN_1)).getId();
+			for (int i = 0; i < 300; i++) {
+				store.updateAll(List.of(new ExpenseEdit(id, "Rent", 100_000 + i)));
+			}
+			store.save(new Expense("Water", 3000, JAN_2));
+			store.deleteByDate(JAN_2);
+			assertThat(store.deadBytes()).isGreaterThan(SEGMENT_SIZE);
+
+			store.compact();
+			assertThat(store.deadBytes()).isZero();
+		}
+		// The compacted log is a new file rather than a rename over the open one, and the old one is gone once closed
+		assertThat(dir.resolve("expenses.log.1")).exists();
+		assertThat(dir.resolve("expenses.log")).doesNotExist();
+		assertThat(dir.resolve("expenses.logX123")).exists();
+		assertThat(dir.resolve("expenses.log-2024")).exists();
+		try (EmbeddedExpenseStore store = open()) {
+			assertThat(store.findByDate(JAN_1)).extracting(Expense::getAmount).containsExactly(100_299L);
+			assertThat(store.findByDate(JAN_2)).isEmpty();
+		}
+	}
+
+	@Test
+	void readsBackOwnersLongerThanASignedShort() throws IOException {
+		// Owners from the HTTP header are capped at 64 characters, but the log accepts any an expense carries
+		Expense expense = new Expense("Rent", 100_000, JAN_1);
+		expense.setId("long-owner");
+		expense.setOwner("o".repeat(40_000));
+		List<String> owners = new ArrayList<>();
+		try (ExpenseLog log = ExpenseLog.open(dir.resolve("owners.log"), 1 << 17)) {
+			log.recover(record -> { });
+			log.appendPut(expense);
+		}
+		try (ExpenseLog log = ExpenseLog.open(dir.resolve("owners.log"), 1 << 17)) {
+			log.recover(record -> owners.add(record.owner()));
+		}
+		assertThat(owners).containsExactly(expense.getOwner());
+	}
+
+	@Test
+	void refusesALogWhoseHeaderDeclaresAnImpossibleSegmentSize() throws IOException {
+		Path file = dir.resolve("expenses.log");
+		try (EmbeddedExpenseStore store = open()) {
+			store.save(new Expense("Book", 4500, JAN_1));
+		}
+		for (int segmentSize : new int[] { 16, SEGMENT_SIZE * 2, Integer.MAX_VALUE }) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.allocate(4).putInt(0, segmentSize), 4);
+			}
+			assertThatThrownBy(() -> ExpenseLog.open(file, SEGMENT_SIZE)).isInstanceOf(IOException.class)
+					.hasMessageContaining("segment size " + segmentSize);
+		}
+		assertThat(Files.size(file)).isEqualTo(SEGMENT_SIZE);
+	}
+
+	@Test
+	void dropsATornRecordAtTheEndOfTheLog() throws IOException {
+		Path file = dir.resolve("expenses.log");
+		try (EmbeddedExpenseStore store = open()) {
+			store.save(new Expense("Book", 4500, JAN_1));
+			store.save(new Expense("Movie", 2000, JAN_1));
+		}
+		List<Long> offsets = new ArrayList<>();
+		try (ExpenseLog log = ExpenseLog.open(file, SEGMENT_SIZE)) {
+			log.recover(record -> offsets.add(record.offset()));
+		}
+		// Flip a payload byte of the last record, as if the process died halfway through writing it
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 0x7f }), offsets.get(1) + ExpenseLog.HEADER_SIZE + 5);
+		}
+
+		try (EmbeddedExpenseStore store = open()) {
+			assertThat(store.findByDate(JAN_1)).extracting(Expense::getName).containsExactly("Book");
+			store.save(new Expense("Movie", 2000, JAN_1));
+		}
+		try (EmbeddedExpenseStore store = open()) {
+			assertThat(store.findByDate(JAN_1)).extracting(Expense::getName).containsExactlyInAnyOrder("Book", "Movie");
+		}
+	}
+}
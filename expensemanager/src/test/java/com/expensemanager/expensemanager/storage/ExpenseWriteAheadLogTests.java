@@ -0,0 +1,69 @@
+package com.expensemanager.expensemanager.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.expensemanager.expensemanager.model.Expense;
+import com.expensemanager.expensemanager.tenant.TenantContext;
+
+class ExpenseWriteAheadLogTests {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+
+	@TempDir
+	Path dir;
+
+	@BeforeEach
+	void bindOwner() {
+		TenantContext.set(TenantContext.DEFAULT_OWNER);
+	}
+
+	@AfterEach
+	void unbindOwner() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void checkpointKeepsOnlyPendingExpenses() throws IOException {
+		Path path = dir.resolve("write-behind.log");
+		List<Expense> remaining;
+		try (ExpenseWriteAheadLog wal = ExpenseWriteAheadLog.open(path)) {
+			List<Expense> pending = new ArrayList<>();
+			long position = 0;
+			// Enough flushed records to pass the checkpoint size, with the last few never flushed
+			while (wal.size() < ExpenseWriteAheadLog.CHECKPOINT_BYTES + 4096) {
+				Expense expense = new Expense("Receipt " + pending.size(), 100, JAN_1);
+				expense.setId(new ObjectId().toHexString());
+				position = wal.append(expense);
+				pending.add(expense);
+			}
+			wal.sync(position);
+			remaining = List.copyOf(pending.subList(pending.size() - 5, pending.size()));
+			List<String> flushed = pending.subList(0, pending.size() - 5).stream().map(Expense::getId).toList();
+			wal.markFlushed(flushed, remaining);
+			assertThat(wal.size()).isLessThan(1024);
+
+			Expense late = new Expense("Late", 100, JAN_1);
+			late.setId(new ObjectId().toHexString());
+			wal.sync(wal.append(late));
+			remaining = new ArrayList<>(remaining);
+			remaining.add(late);
+		}
+
+		try (ExpenseWriteAheadLog wal = ExpenseWriteAheadLog.open(path)) {
+			assertThat(wal.recovered()).extracting(Expense::getId)
+					.containsExactlyElementsOf(remaining.stream().map(Expense::getId).toList());
+		}
+	}
+}